@@ -0,0 +1,43 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gameObject.TileMap;
+import gen.WorldGenerator;
+
+/**
+ * This class measures creating an empty map and generating a whole one, once per run, as the game does at startup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GenerationBenchmark {
+
+	@Param({"100", "200", "400"})
+	public int size;
+
+	@Benchmark
+	public TileMap initialize() {
+		return new TileMap(size, size, Maps.SEED);
+	}
+
+	@Benchmark
+	public TileMap generate() {
+		return new WorldGenerator(size, size, Maps.SEED).generate();
+	}
+
+}
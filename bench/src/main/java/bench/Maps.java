@@ -0,0 +1,28 @@
+package bench;
+
+import gameObject.TileMap;
+import gen.WorldGenerator;
+
+/**
+ * This class makes the maps the benchmarks run on, all from the same seed so runs can be compared
+ */
+class Maps {
+
+	static final long SEED = 1234567890L;
+
+	private Maps() {
+
+	}
+
+	/**
+	 * Generates a square map, colored in the first map mode
+	 * @param size
+	 * @return
+	 */
+	static TileMap generate(int size) {
+		TileMap tileMap = new WorldGenerator(size, size, SEED).generate();
+		tileMap.updateMapMode(0);
+		return tileMap;
+	}
+
+}
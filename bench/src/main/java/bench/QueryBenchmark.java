@@ -0,0 +1,97 @@
+package bench;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Game;
+import gameObject.Tile;
+import gameObject.TileMap;
+import gameObject.VertexLattice;
+
+/**
+ * This class measures the per-tile queries: finding neighbors, moving the vertices near the camera to the screen, and finding the tile
+ * under the mouse
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+	private static final int SCREEN_WIDTH = 1280;
+	private static final int SCREEN_HEIGHT = 720;
+
+	@Param({"200"})
+	public int mapSize;
+
+	private TileMap tileMap;
+	private int numTiles;
+	private int cursor;
+
+	private VertexLattice lattice;
+	private int[] xPoints;
+	private int[] yPoints;
+
+	private float[] pickX;
+	private float[] pickY;
+
+	@Setup
+	public void setUp() {
+		tileMap = Maps.generate(mapSize);
+		numTiles = tileMap.getWorld().getNumTiles();
+		cursor = 0;
+		lattice = new VertexLattice();
+		updateLattice();
+		xPoints = new int[6];
+		yPoints = new int[6];
+		//a grid of points over the map, so every branch of the picking math is taken
+		pickX = new float[1024];
+		pickY = new float[1024];
+		for (int i = 0; i < pickX.length; i++) {
+			pickX[i] = (i % 32) * (mapSize * 1.5f / 32) + 0.37f;
+			pickY[i] = (i / 32) * (mapSize * (float) Math.sqrt(3) / 32) + 0.61f;
+		}
+	}
+
+	@Benchmark
+	public Set<Tile> getNeighbors() {
+		Tile tile = tileMap.getTile(cursor);
+		cursor = (cursor + 1) % numTiles;
+		return tile.getNeighbors();
+	}
+
+	@Benchmark
+	public VertexLattice updateLattice() {
+		//the tiles a 1280x720 screen shows at zoom 20 around (150, 170)
+		lattice.update(150, 170, 20, SCREEN_WIDTH / 2, SCREEN_HEIGHT / 2, 76, 124, 87, 111);
+		return lattice;
+	}
+
+	@Benchmark
+	public int[] getPolygon() {
+		int i = cursor++ & 0xffff;
+		lattice.getPolygon(76 + i % 48, 87 + (i >> 6) % 24, xPoints, yPoints);
+		return xPoints;
+	}
+
+	@Benchmark
+	public int[] getTileCoordinates() {
+		int i = cursor++ & (pickX.length - 1);
+		return Game.getTileCoordinates(pickX[i], pickY[i]);
+	}
+
+}
@@ -0,0 +1,115 @@
+package bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import display.Camera;
+import display.Renderer;
+import engine.Game;
+
+/**
+ * This class measures rendering a whole frame into an offscreen image, with the camera over the middle of the map
+ *
+ * The modes are:
+ * <pre>
+ * polygon every tile drawn with Graphics.fillPolygon()
+ * raster  every tile drawn by the HexRasterizer
+ * idle    the same frame again with nothing changed, reusing the last one
+ * pan     the camera panning 10 pixels a frame, as holding WASD does, back and forth so it stays over the map
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+	@Param({"200"})
+	public int mapSize;
+
+	@Param({"60", "20", "5", "1"})
+	public float zoom;
+
+	@Param({"720p", "1080p", "4k"})
+	public String screen;
+
+	@Param({"polygon", "raster", "idle", "pan"})
+	public String mode;
+
+	private Camera camera;
+	private Renderer renderer;
+	private BufferedImage image;
+	private boolean panning;
+	private int frame;
+
+	@Setup
+	public void setUp() {
+		int width;
+		int height;
+		switch (screen) {
+		case "720p":
+			width = 1280;
+			height = 720;
+			break;
+		case "1080p":
+			width = 1920;
+			height = 1080;
+			break;
+		case "4k":
+			width = 3840;
+			height = 2160;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown screen " + screen);
+		}
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		camera = new Camera(mapSize * 1.5f / 2, mapSize * (float) Math.sqrt(3) / 2, zoom);
+		renderer = new Renderer(new Game(Maps.generate(mapSize), camera));
+		switch (mode) {
+		case "polygon":
+			renderer.setRasterized(false);
+			renderer.setRetained(false);
+			break;
+		case "raster":
+			renderer.setRasterized(true);
+			renderer.setRetained(false);
+			break;
+		case "idle":
+		case "pan":
+			renderer.setRasterized(true);
+			renderer.setRetained(true);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown mode " + mode);
+		}
+		panning = mode.equals("pan");
+		frame = 0;
+	}
+
+	@Benchmark
+	public BufferedImage render() {
+		if (panning) {
+			camera.update((frame++ & 64) == 0 ? 10 / zoom : -10 / zoom, 0, 0);
+		}
+		Graphics2D g = image.createGraphics();
+		renderer.render(g, image.getWidth(), image.getHeight());
+		g.dispose();
+		return image;
+	}
+
+}
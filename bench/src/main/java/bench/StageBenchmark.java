@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gameObject.TileMap;
+import gen.GenerationStage;
+import gen.WorldGenerator;
+
+/**
+ * This class measures each generation stage on its own, on a map that has been through every earlier stage
+ *
+ * The stages change the map they run on, so a new map is made and taken through the earlier stages before every run, outside of the
+ * timed part.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StageBenchmark {
+
+	@Param({"100", "200", "400"})
+	public int size;
+
+	//the names of the stages of WorldGenerator.createStages()
+	@Param({"splitTilesAlpha", "splitTilesBeta", "splitTilesGamma", "smooth", "calcTemp", "calcIsLand", "calcPop", "calcCiv",
+			"calcSettlement"})
+	public String stage;
+
+	private List<GenerationStage> stages;
+	private int index; //the index of the measured stage in stages
+	private TileMap tileMap;
+
+	@Setup(Level.Trial)
+	public void findStage() {
+		stages = new WorldGenerator(size, size, Maps.SEED).createStages();
+		index = 0;
+		while (index < stages.size() && !stages.get(index).getName().equals(stage)) {
+			index++;
+		}
+		if (index == stages.size()) {
+			throw new IllegalArgumentException("There is no generation stage called " + stage);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void runEarlierStages() {
+		tileMap = new TileMap(size, size, Maps.SEED);
+		for (int i = 0; i < index; i++) {
+			stages.get(i).run(tileMap);
+		}
+	}
+
+	@Benchmark
+	public TileMap run() {
+		stages.get(index).run(tileMap);
+		return tileMap;
+	}
+
+}
@@ -0,0 +1,87 @@
+package display;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import engine.Game;
+import gameObject.TileMap;
+import gen.WorldGenerator;
+
+/**
+ * Checks that frames drawn by reusing the last one (scrolled when the camera
+ * pans, with only recolored tiles drawn again) are exactly the frames drawn
+ * from scratch
+ */
+public class RetainedFrameTest {
+
+	private static final int MAP_SIZE = 200;
+	private static final int WIDTH = 1280;
+	private static final int HEIGHT = 720;
+
+	@Test
+	public void retainedFramesMatchFullRepaints() {
+		TileMap tileMap = new WorldGenerator(MAP_SIZE, MAP_SIZE, 5).generate();
+		tileMap.updateMapMode(0);
+		Random random = new Random(3);
+		BufferedImage retainedImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		BufferedImage fullImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		//zooms above MapImage.LOD_ZOOM, where the rasterizer draws the tiles
+		for (float zoom : new float[] {60, 20, 7, 4.5f}) {
+			Camera camera = new Camera(10, 10, zoom);
+			Game game = new Game(tileMap, camera);
+			Renderer retained = new Renderer(game);
+			retained.setRasterized(true);
+			retained.setRetained(true);
+			Renderer full = new Renderer(game);
+			full.setRasterized(true);
+			full.setRetained(false);
+			for (int frame = 0; frame < 100; frame++) {
+				float step = 10 / zoom;
+				int kind = random.nextInt(10);
+				if (kind < 7) {
+					//panning by whole steps, as holding WASD does
+					camera.update((random.nextInt(3) - 1) * step, (random.nextInt(3) - 1) * step, 0);
+				}
+				else if (kind == 7) {
+					//panning by part of a pixel
+					camera.update(random.nextFloat() / zoom, 0, 0);
+				}
+				else if (kind == 8) {
+					//jumping somewhere else on the map
+					camera.moveTo(random.nextFloat() * MAP_SIZE * 1.5f, random.nextFloat() * MAP_SIZE * 1.7f, zoom);
+				}
+				else {
+					tileMap.getTile(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE)).setColor(new Color(random.nextInt(0xffffff)));
+				}
+				int[] expected = render(full, fullImage);
+				int[] actual = render(retained, retainedImage);
+				assertEquals(0, countDifferences(expected, actual), "pixels differing at zoom " + zoom + ", frame " + frame);
+			}
+		}
+	}
+
+	private static int[] render(Renderer renderer, BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		renderer.render(g, image.getWidth(), image.getHeight());
+		g.dispose();
+		return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+
+	private static int countDifferences(int[] expected, int[] actual) {
+		int differences = 0;
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] != actual[i]) {
+				differences++;
+			}
+		}
+		return differences;
+	}
+
+}
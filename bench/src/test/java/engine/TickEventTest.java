@@ -0,0 +1,54 @@
+package engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import display.Camera;
+import gameObject.TileMap;
+import gen.WorldGenerator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Checks that a game updated without a window ticks, and records each tick for Flight Recorder
+ */
+public class TickEventTest {
+
+	private static final int MAP_SIZE = 30;
+
+	@Test
+	public void headlessUpdatesEmitTickEvents() throws Exception {
+		TileMap tileMap = new WorldGenerator(MAP_SIZE, MAP_SIZE, 1234567890L).generate();
+		tileMap.updateMapMode(0);
+		Game game = new Game(tileMap, new Camera(MAP_SIZE * 0.75f, MAP_SIZE * 0.85f, 20));
+
+		int updates = game.getUpdatesPerTick(); //enough for exactly one tick at the game's speed
+		Path file = Files.createTempFile("tick", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("itd.Tick");
+			recording.start();
+			for (int i = 0; i < updates; i++) {
+				game.update();
+			}
+			recording.stop();
+			recording.dump(file);
+
+			List<RecordedEvent> ticks = RecordingFile.readAllEvents(file);
+			assertEquals(1, ticks.size(), "itd.Tick events after " + updates + " updates");
+			for (RecordedEvent tick : ticks) {
+				assertEquals("itd.Tick", tick.getEventType().getName());
+				assertEquals((long) MAP_SIZE * MAP_SIZE, tick.getLong("tiles"));
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
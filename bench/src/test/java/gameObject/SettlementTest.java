@@ -0,0 +1,77 @@
+package gameObject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import gen.GenerationStage;
+import gen.WorldGenerator;
+
+/**
+ * Checks that placing settlements with the sorted scan gives the settlements of the original greedy pass over a list of tiles
+ */
+public class SettlementTest {
+
+	@Test
+	public void sortedScanMatchesGreedyList() {
+		for (long seed : new long[] {1, 42, 1234567890L}) {
+			TileMap tileMap = createMapBeforeSettlements(150, seed);
+			int[] expected = placeGreedily(tileMap);
+			tileMap.calcSettlement();
+			assertArrayEquals(expected, tileMap.getWorld().getSettlementIds(), "seed " + seed);
+		}
+	}
+
+	/**
+	 * Returns a map that has been through every generation stage before settlements are placed
+	 */
+	private static TileMap createMapBeforeSettlements(int size, long seed) {
+		TileMap tileMap = new TileMap(size, size, seed);
+		for (GenerationStage stage : new WorldGenerator(size, size, seed).createStages()) {
+			if (stage.getName().equals("calcSettlement")) {
+				break;
+			}
+			stage.run(tileMap);
+		}
+		return tileMap;
+	}
+
+	/**
+	 * Places settlements as calcSettlement() once did, without changing the map: the tiles are sorted by decreasing civ (ties in column
+	 * then row order) into a list, and the first is taken and the tiles near it removed until the first left has a civ below 0.1
+	 * @return the ids of the tiles that would have settlements, in order
+	 */
+	private static int[] placeGreedily(TileMap tileMap) {
+		float[] civ = tileMap.getWorld().getCivs();
+		int width = tileMap.getWorld().getWidth();
+		int length = tileMap.getWorld().getLength();
+		List<Integer> sortedTiles = new ArrayList<>();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < length; y++) {
+				sortedTiles.add(tileMap.getWorld().index(x, y));
+			}
+		}
+		sortedTiles.sort((Integer a, Integer b) -> Float.compare(civ[b], civ[a])); //stable, so ties keep column then row order
+		List<Integer> settlements = new ArrayList<>();
+		while (!sortedTiles.isEmpty()) {
+			int id = sortedTiles.remove(0);
+			settlements.add(id);
+			Set<Integer> near = new HashSet<>();
+			tileMap.forEachInDisk(id, TileMap.getSettlementRadius(civ[id], width + length), near::add);
+			sortedTiles.removeAll(near);
+			if (!sortedTiles.isEmpty() && civ[sortedTiles.get(0)] < 0.1) {
+				break;
+			}
+		}
+		int[] ids = settlements.stream().mapToInt(Integer::intValue).toArray();
+		Arrays.sort(ids);
+		return ids;
+	}
+
+}
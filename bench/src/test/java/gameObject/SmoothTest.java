@@ -0,0 +1,42 @@
+package gameObject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+import gen.GenerationStage;
+import gen.WorldGenerator;
+
+/**
+ * Checks that smoothing bands of rows in parallel gives exactly the heights smoothing on one thread does
+ */
+public class SmoothTest {
+
+	private static final long SEED = 1234567890L;
+
+	@Test
+	public void parallelSmoothMatchesSequential() {
+		//big enough to be split into many bands, and an odd size so the bands are uneven
+		int size = 301;
+		TileMap parallel = createSplitMap(size);
+		TileMap sequential = createSplitMap(size);
+		parallel.smooth(5, true);
+		sequential.smooth(5, false);
+		assertArrayEquals(sequential.getWorld().getHeights(), parallel.getWorld().getHeights());
+	}
+
+	/**
+	 * Returns a map that has been split into plates, as it is before it is smoothed
+	 */
+	private static TileMap createSplitMap(int size) {
+		TileMap tileMap = new TileMap(size, size, SEED);
+		for (GenerationStage stage : new WorldGenerator(size, size, SEED).createStages()) {
+			if (stage.getName().equals("smooth")) {
+				break;
+			}
+			stage.run(tileMap);
+		}
+		return tileMap;
+	}
+
+}
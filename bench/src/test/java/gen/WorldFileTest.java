@@ -0,0 +1,48 @@
+package gen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import gameObject.TileMap;
+import model.WorldData;
+
+/**
+ * Checks that a saved world loads back exactly as it was generated
+ */
+public class WorldFileTest {
+
+	@Test
+	public void writeThenReadGivesEqualWorld() throws Exception {
+		//not square, so a swapped width and length would show
+		WorldGenerator generator = new WorldGenerator(120, 90, 1234567890L);
+		TileMap generated = generator.generate();
+		Path file = Files.createTempFile("world", ".itdw");
+		try {
+			WorldFile.write(file, generated, generator);
+			assertTrue(WorldFile.matches(file, generator));
+			TileMap loaded = WorldFile.read(file);
+
+			WorldData expected = generated.getWorld();
+			WorldData actual = loaded.getWorld();
+			assertEquals(expected.getWidth(), actual.getWidth());
+			assertEquals(expected.getLength(), actual.getLength());
+			assertEquals(expected.getSeed(), actual.getSeed());
+			assertArrayEquals(expected.getHeights(), actual.getHeights());
+			assertArrayEquals(expected.getTemps(), actual.getTemps());
+			assertArrayEquals(expected.getPops(), actual.getPops());
+			assertArrayEquals(expected.getCivs(), actual.getCivs());
+			assertEquals(expected.getIsLand(), actual.getIsLand());
+			assertArrayEquals(expected.getSettlementIds(), actual.getSettlementIds());
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
@@ -4,14 +4,29 @@ package display;
  * This class contains data dealing with the position and zoom of the camera
  */
 public class Camera {
+	//the minimum and maximum zoom
+	public static final float MIN_ZOOM = 1;
+	public static final float MAX_ZOOM = 100;
+	
 	private float x;
 	private float y;
 	private float zoom;
+	//where the camera was before the last update, so frames between updates can be drawn part of the way between them
+	private float previousX;
+	private float previousY;
+	private float previousZoom;
 	
 	public Camera() {
-		this.x = 50;
-		this.y = 50;
-		this.zoom = 20;
+		this(50, 50, 20);
+	}
+	
+	public Camera(float x, float y, float zoom) {
+		this.x = x;
+		this.y = y;
+		this.zoom = zoom;
+		previousX = x;
+		previousY = y;
+		previousZoom = zoom;
 	}
 	
 	public float getX() {
@@ -26,6 +41,48 @@ public class Camera {
 		return zoom;
 	}
 	
+	/**
+	 * Returns the x value part of the way from before the last update to now
+	 * @param alpha 0 for before the last update, 1 for now
+	 * @return
+	 */
+	public float getX(float alpha) {
+		return previousX + (x - previousX) * alpha;
+	}
+	
+	/**
+	 * Returns the y value part of the way from before the last update to now
+	 * @param alpha 0 for before the last update, 1 for now
+	 * @return
+	 */
+	public float getY(float alpha) {
+		return previousY + (y - previousY) * alpha;
+	}
+	
+	/**
+	 * Returns the zoom part of the way from before the last update to now
+	 * @param alpha 0 for before the last update, 1 for now
+	 * @return
+	 */
+	public float getZoom(float alpha) {
+		return previousZoom + (zoom - previousZoom) * alpha;
+	}
+	
+	/**
+	 * Moves the camera straight to a position and zoom, as one update
+	 * @param x
+	 * @param y
+	 * @param zoom
+	 */
+	public void moveTo(float x, float y, float zoom) {
+		previousX = this.x;
+		previousY = this.y;
+		previousZoom = this.zoom;
+		this.x = x;
+		this.y = y;
+		this.zoom = zoom;
+	}
+	
 	/**
 	 * Updates the position and zoom of the camera
 	 * @param dx
@@ -33,6 +90,9 @@ public class Camera {
 	 * @param mouseScroll
 	 */
 	public void update(float dx, float dy, float mouseScroll) {
+		previousX = x;
+		previousY = y;
+		previousZoom = zoom;
 		x+=dx;
 		y+=dy;
 
@@ -56,11 +116,11 @@ public class Camera {
 
 		//increasing zoom is zooming in, decreasing zoom is zooming out
 		//minimum and maximum zoom
-		if (zoom < 1) {
-			zoom = 1;
+		if (zoom < MIN_ZOOM) {
+			zoom = MIN_ZOOM;
 		}
-		if (zoom > 100) {
-			zoom = 100;
+		if (zoom > MAX_ZOOM) {
+			zoom = MAX_ZOOM;
 		}
 		
 	}
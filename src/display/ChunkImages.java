@@ -0,0 +1,180 @@
+package display;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import gameObject.Chunk;
+import gameObject.ChunkedWorld;
+import gameObject.Palette;
+import gameObject.VertexLattice;
+
+/**
+ * This class keeps an image of each recently drawn chunk of a streamed world, drawn once at a low zoom, so that zoomed out frames are a
+ * scaled {@code drawImage()} for each chunk instead of a polygon for every tile
+ *
+ * Every image is drawn on the same grid of pixels at {@code ZOOM}, so the images of neighboring chunks line up, and the corners outside of
+ * a chunk's hexagons are left transparent for its neighbors' tiles to show through. A chunk's image is drawn again when it is recolored
+ * or generated again, and the least recently drawn images are dropped when they take up more than {@code MAX_BYTES}.
+ */
+public class ChunkImages {
+
+	public static final float ZOOM = 2f; //the zoom the images are drawn at
+	private static final long MAX_BYTES = 64L * 1024 * 1024; //the most memory the kept images may take
+
+	private LinkedHashMap<Long, ChunkImage> images; //by the chunk's coordinates, in least-recently-drawn order
+	private long bytes; //the memory the kept images take
+	private BufferedImage frame; //where the visible chunks' images are put together before they are scaled, reused between frames
+
+	private VertexLattice lattice;
+	private int[] xPoints;
+	private int[] yPoints;
+	private int[] square; //the left, top and size of a settlement's square
+
+	public ChunkImages() {
+		images = new LinkedHashMap<>(64, 0.75f, true);
+		bytes = 0;
+		lattice = new VertexLattice();
+		xPoints = new int[6];
+		yPoints = new int[6];
+		square = new int[3];
+	}
+
+	/**
+	 * Draws the loaded chunks in the visible range, scaled and moved to the camera
+	 *
+	 * The chunks' images are put together at {@code ZOOM} first, where they line up exactly, and then scaled once, so no gaps open up
+	 * between them where their edges are rounded.
+	 * @param g
+	 * @param world
+	 * @param range the visible tiles
+	 * @param cameraX
+	 * @param cameraY
+	 * @param cameraZoom
+	 * @param width the width of the screen
+	 * @param height the height of the screen
+	 */
+	public void draw(Graphics g, ChunkedWorld world, VisibleRange range, float cameraX, float cameraY, float cameraZoom, int width, int height) {
+		//the pixels at the screen's edges, put on the screen as VertexLattice puts vertices, and the grid pixels they are in
+		int originX = (int) Math.floor(cameraX * cameraZoom) - width / 2;
+		int originY = (int) Math.floor(cameraY * cameraZoom) - height / 2;
+		int left = (int) Math.floor(originX / cameraZoom * ZOOM);
+		int top = (int) Math.floor(originY / cameraZoom * ZOOM);
+		int right = (int) Math.ceil((originX + width) / cameraZoom * ZOOM) + 1;
+		int bottom = (int) Math.ceil((originY + height) / cameraZoom * ZOOM) + 1;
+		if (frame == null || frame.getWidth() < right - left || frame.getHeight() < bottom - top) {
+			frame = new BufferedImage(right - left, bottom - top, BufferedImage.TYPE_INT_RGB);
+		}
+		Graphics frameGraphics = frame.getGraphics();
+		frameGraphics.setColor(Color.BLACK);
+		frameGraphics.fillRect(0, 0, right - left, bottom - top);
+		int size = ChunkedWorld.CHUNK_SIZE;
+		for (int chunkY = range.getMinRow() / size; chunkY <= range.getMaxRow() / size; chunkY++) {
+			for (int chunkX = range.getMinColumn() / size; chunkX <= range.getMaxColumn() / size; chunkX++) {
+				Chunk chunk = world.getChunk(chunkX, chunkY);
+				if (chunk == null) {
+					continue; //not generated yet
+				}
+				ChunkImage image = getImage(chunk);
+				frameGraphics.drawImage(image.image, image.left - left, image.top - top, null);
+			}
+		}
+		frameGraphics.dispose();
+		//grid pixel i covers the units from i / ZOOM to (i + 1) / ZOOM, so at ZOOM each lands on exactly the pixel the tiles would
+		int x1 = (int) Math.floor(left / ZOOM * cameraZoom) - originX;
+		int y1 = (int) Math.floor(top / ZOOM * cameraZoom) - originY;
+		int x2 = (int) Math.floor(right / ZOOM * cameraZoom) - originX;
+		int y2 = (int) Math.floor(bottom / ZOOM * cameraZoom) - originY;
+		g.drawImage(frame, x1, y1, x2, y2, 0, 0, right - left, bottom - top, null);
+	}
+
+	/**
+	 * Returns a chunk's image, drawing it if there isn't one of its current colors
+	 */
+	private ChunkImage getImage(Chunk chunk) {
+		long key = ((long) chunk.getChunkY() << 32) | (chunk.getChunkX() & 0xffffffffL);
+		int[] colors = chunk.getColors(); //read once, so the whole image is of one map mode
+		ChunkImage image = images.get(key);
+		if (image != null && image.colors == colors) {
+			return image;
+		}
+		if (image != null) {
+			images.remove(key);
+			bytes -= image.getSizeInBytes();
+		}
+		image = createImage(chunk, colors);
+		images.put(key, image);
+		bytes += image.getSizeInBytes();
+		for (Iterator<ChunkImage> it = images.values().iterator(); it.hasNext() && bytes > MAX_BYTES;) {
+			ChunkImage oldest = it.next();
+			if (oldest != image) {
+				bytes -= oldest.getSizeInBytes();
+				it.remove();
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Draws every tile of a chunk at {@code ZOOM}, with the image's top left corner at the grid pixel of the chunk's top left corner
+	 */
+	private ChunkImage createImage(Chunk chunk, int[] colors) {
+		int maxColumn = chunk.getX0() + chunk.getWidth() - 1;
+		int maxRow = chunk.getY0() + chunk.getLength() - 1;
+		//with no half screen, the lattice's origin is the grid pixel at the camera, here the chunk's top left corner
+		float left = VertexLattice.getX(VertexLattice.getVertexColumn(chunk.getX0(), 5));
+		float top = VertexLattice.getY(VertexLattice.getVertexRow(chunk.getX0() & ~1, chunk.getY0(), 0));
+		lattice.update(left, top, ZOOM, 0, 0, chunk.getX0(), maxColumn, chunk.getY0(), maxRow);
+		//the odd columns reach furthest down
+		int width = lattice.getScreenX(VertexLattice.getVertexColumn(maxColumn, 2)) + 1;
+		int height = lattice.getScreenY(VertexLattice.getVertexRow(1, maxRow, 3)) + 1;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics g = image.getGraphics();
+		int color = 0; //packed colors always have an alpha of 255, so the first tile sets the color
+		for (int x = chunk.getX0(); x <= maxColumn; x++) {
+			for (int y = chunk.getY0(); y <= maxRow; y++) {
+				int rgb = colors[chunk.index(x, y)];
+				if (rgb != color) {
+					color = rgb;
+					g.setColor(Palette.getColor(rgb));
+				}
+				lattice.getPolygon(x, y, xPoints, yPoints);
+				g.fillPolygon(xPoints, yPoints, 6);
+				if (chunk.hasSettlement(x, y)) {
+					g.setColor(Color.BLACK);
+					VertexLattice.getSettlementSquare(xPoints, yPoints, square, 0);
+					g.fillRect(square[0], square[1], square[2], square[2]);
+					color = 0;
+				}
+			}
+		}
+		g.dispose();
+		return new ChunkImage(image, colors, lattice.getOriginX(), lattice.getOriginY());
+	}
+
+	/**
+	 * This class is the image of a chunk, and what it was drawn from
+	 */
+	private static class ChunkImage {
+
+		private BufferedImage image;
+		private int[] colors; //the chunk's colors the image was drawn from
+		private int left; //the grid pixel at the image's left edge
+		private int top; //the grid pixel at the image's top edge
+
+		ChunkImage(BufferedImage image, int[] colors, int left, int top) {
+			this.image = image;
+			this.colors = colors;
+			this.left = left;
+			this.top = top;
+		}
+
+		long getSizeInBytes() {
+			return 4L * image.getWidth() * image.getHeight();
+		}
+
+	}
+
+}
@@ -5,8 +5,11 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.image.BufferStrategy;
+import java.util.Locale;
 
 import engine.Game;
+import engine.Snapshot;
+import profiling.Profiler;
 
 /**
  * This class contains methods that deal with graphics and calls the {@code Renderer}'s methods
@@ -16,12 +19,14 @@ public class Display extends Canvas {
 	private static final long serialVersionUID = -3925535296884505775L;
 	 
 	private Game game;
-	private Renderer renderer;
+	private volatile Renderer renderer;
 	
-	private int fps; //frames per second
-	private int ups; //updates per second
-	private long frameTime; //time taken to render a frame (for statistics)
-	private long updateTime; //time taken to update (for statistics)
+	private static final int GRAPH_HEIGHT = 45; //the height of the frame time graph, with its margin
+	private static final long GRAPH_NANOS = 33333333L; //the frame time at the top of the graph
+	
+	//statistics, given from the render thread
+	private volatile int fps; //frames per second
+	private volatile int ups; //updates per second
 	
 	public Display(Game game) {
 		this.game = game;
@@ -46,51 +51,86 @@ public class Display extends Canvas {
 	}
 	
 	/**
-	 * Renders the current game data
+	 * Renders the newest published game data
 	 */
 	public void render() {
+		render(game.getSnapshot(), 1f);
+	}
+	
+	/**
+	 * Renders a snapshot of the game data, with the camera part of the way from where it was before that update to after it
+	 * @param snapshot
+	 * @param alpha how far through the time between updates the frame is, from 0 to 1
+	 */
+	public void render(Snapshot snapshot, float alpha) {
         BufferStrategy bufferStrategy = getBufferStrategy();
         Graphics g = bufferStrategy.getDrawGraphics();
 
-        renderer.render(g, getWidth(), getHeight());
+        renderer.render(g, getWidth(), getHeight(), snapshot, alpha);
         
         //renders statistics
-        drawUpdateData(g);
+        drawUpdateData(g, snapshot);
 
         g.dispose();
         bufferStrategy.show();
     }
 	
 	/**
-	 * Draws the statistics: frames per second, updates per second, frame time (in nanoseconds), update time (in nanoseconds), and the tick progress
+	 * Draws the statistics: frames per second, updates per second, the tick progress, the 50th and 99th percentile and largest time (in
+	 * milliseconds) of each phase of frames and updates over the last second, and a graph of the latest frame times
 	 * @param g
+	 * @param snapshot
 	 */
-	public void drawUpdateData(Graphics g) {
+	public void drawUpdateData(Graphics g, Snapshot snapshot) {
+		Profiler profiler = game.getProfiler();
+		int graphTop = 90 + Profiler.NUM_PHASES * 15;
 		g.setColor(Color.BLACK);
-		g.fillRect(5, 5, 100, 100);
+		g.fillRect(5, 5, 230, graphTop + GRAPH_HEIGHT);
 		g.setFont(new Font(g.getFont().getFontName(), g.getFont().getStyle(), 12));
 		g.setColor(Color.GREEN);
         g.drawString("FPS: " + fps, 10, 20);
         g.drawString("UPS: " + ups, 10, 40);
         g.drawString("TICK: ", 10, 60);
         g.drawRect(42, 50, 20, 10);
-        g.fillRect(42, 50, (int) (game.getTickProgress() * 20), 10);
-        g.drawString("FTn: " + frameTime, 10, 80);
-        g.drawString("UTn: " + updateTime, 10, 100);
+        g.fillRect(42, 50, (int) (snapshot.getTickProgress() * 20), 10);
+        g.drawString("ms", 10, 80);
+        g.drawString("p50", 90, 80);
+        g.drawString("p99", 140, 80);
+        g.drawString("max", 190, 80);
+        for (int phase = 0; phase < Profiler.NUM_PHASES; phase++) {
+        	int y = 95 + phase * 15;
+        	g.drawString(Profiler.getName(phase), 10, y);
+        	g.drawString(toMillis(profiler.getP50(phase)), 90, y);
+        	g.drawString(toMillis(profiler.getP99(phase)), 140, y);
+        	g.drawString(toMillis(profiler.getMax(phase)), 190, y);
+        }
+        
+        //one bar per frame, newest on the right, with a line at the time a frame has at 60 frames per second
+        int graphBottom = graphTop + GRAPH_HEIGHT - 5;
+        for (int i = 0; i < Profiler.GRAPH_SIZE; i++) {
+        	int barHeight = (int) Math.min(GRAPH_HEIGHT - 5, profiler.getFrameTime(i) * (GRAPH_HEIGHT - 5) / GRAPH_NANOS);
+        	g.drawLine(10 + i, graphBottom, 10 + i, graphBottom - barHeight);
+        }
+        g.setColor(Color.RED);
+        int budgetY = graphBottom - (int) (16666667L * (GRAPH_HEIGHT - 5) / GRAPH_NANOS);
+        g.drawLine(10, budgetY, 10 + Profiler.GRAPH_SIZE, budgetY);
+	}
+	
+	/**
+	 * Returns a number of nanoseconds as milliseconds, to two decimal places
+	 */
+	private static String toMillis(long nanos) {
+		return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
 	}
 	
 	/**
 	 * Receives the data for drawUpdateData
 	 * @param fps frames per second
 	 * @param ups updates per second
-	 * @param frameTime nanoseconds taken to render
-	 * @param updateTime nanoseconds taken to update
 	 */
-	public void giveStats(int fps, int ups, long frameTime, long updateTime) {
+	public void giveStats(int fps, int ups) {
 		this.fps = fps;
 		this.ups = ups;
-		this.frameTime = frameTime;
-		this.updateTime = updateTime;
 	}
 	
 }
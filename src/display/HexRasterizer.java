@@ -0,0 +1,258 @@
+package display;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import gameObject.VertexLattice;
+import model.WorldData;
+
+/**
+ * This class draws hexagons by writing their scanlines straight into the pixels of an image, instead of going through {@code Graphics.fillPolygon()}
+ *
+ * A pixel belongs to a hexagon if its center is inside it, with centers exactly on the left or top edge counted as inside and those on
+ * the right or bottom edge as outside. Neighboring hexagons share their edges' endpoints on the {@code VertexLattice} and compute each
+ * edge the same way, so every pixel is filled by exactly one hexagon. The screen is split into bands of rows that are filled in parallel.
+ * When the camera pans, {@code scroll()} moves the pixels that stay on screen and only fills the strips that come into view.
+ */
+public class HexRasterizer {
+
+	private static final float SQRT_3 = (float) Math.sqrt(3);
+
+	private BufferedImage image;
+	private int[] pixels;
+	private int width;
+	private int height;
+
+	//the frame being drawn, set by render() and scroll() for the bands
+	private VertexLattice lattice;
+	private VisibleRange range;
+	private WorldData world;
+	private int[] colors;
+	private float cameraX;
+	private float cameraY;
+	private float zoom;
+	private int halfWidth;
+	private int halfHeight;
+	private int background;
+
+	public HexRasterizer() {
+		resize(1, 1);
+	}
+
+	/**
+	 * Makes the image the given size, if it isn't already
+	 * @param width
+	 * @param height
+	 */
+	public void resize(int width, int height) {
+		width = Math.max(1, width);
+		height = Math.max(1, height);
+		if (image != null && width == this.width && height == this.height) {
+			return;
+		}
+		this.width = width;
+		this.height = height;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+
+	/**
+	 * Draws the visible tiles of a map over a background color
+	 * @param world the map's data
+	 * @param colors the packed color of every tile
+	 * @param lattice the on-screen vertices, updated for at least {@code range}
+	 * @param range the visible tiles
+	 * @param cameraX
+	 * @param cameraY
+	 * @param zoom
+	 * @param halfWidth
+	 * @param halfHeight
+	 * @param background
+	 */
+	public void render(WorldData world, int[] colors, VertexLattice lattice, VisibleRange range, float cameraX, float cameraY, float zoom, int halfWidth, int halfHeight, int background) {
+		setFrame(world, colors, lattice, range, cameraX, cameraY, zoom, halfWidth, halfHeight, background);
+		rasterize(0, 0, width, height);
+	}
+
+	/**
+	 * Moves what the image shows by a whole number of pixels, and draws the strips along the edges that it uncovers
+	 *
+	 * This gives the same image as {@code render()}, as long as the image was last drawn at the same zoom and the lattice's origin has
+	 * moved by exactly {@code dx} and {@code dy} since. The parameters are those of {@code render()}.
+	 * @param dx how many pixels the lattice's origin has moved right
+	 * @param dy how many pixels the lattice's origin has moved down
+	 */
+	public void scroll(int dx, int dy, WorldData world, int[] colors, VertexLattice lattice, VisibleRange range, float cameraX, float cameraY, float zoom, int halfWidth, int halfHeight, int background) {
+		setFrame(world, colors, lattice, range, cameraX, cameraY, zoom, halfWidth, halfHeight, background);
+		if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+			rasterize(0, 0, width, height);
+			return;
+		}
+		//copy each kept row, going against the direction of the move so rows are read before they're overwritten
+		int rowLength = width - Math.abs(dx);
+		int from = Math.max(0, dx);
+		int to = Math.max(0, -dx);
+		if (dy >= 0) {
+			for (int row = 0; row < height - dy; row++) {
+				System.arraycopy(pixels, (row + dy) * width + from, pixels, row * width + to, rowLength);
+			}
+		}
+		else {
+			for (int row = height - 1; row >= -dy; row--) {
+				System.arraycopy(pixels, (row + dy) * width + from, pixels, row * width + to, rowLength);
+			}
+		}
+		//the uncovered columns over the whole height, then the uncovered rows between them
+		int left = dx > 0 ? 0 : -dx;
+		int right = dx > 0 ? width - dx : width;
+		if (dx > 0) {
+			rasterize(right, 0, width, height);
+		}
+		else if (dx < 0) {
+			rasterize(0, 0, left, height);
+		}
+		if (dy > 0) {
+			rasterize(left, height - dy, right, height);
+		}
+		else if (dy < 0) {
+			rasterize(left, 0, right, -dy);
+		}
+	}
+
+	private void setFrame(WorldData world, int[] colors, VertexLattice lattice, VisibleRange range, float cameraX, float cameraY, float zoom, int halfWidth, int halfHeight, int background) {
+		this.world = world;
+		this.colors = colors;
+		this.lattice = lattice;
+		this.range = range;
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.zoom = zoom;
+		this.halfWidth = halfWidth;
+		this.halfHeight = halfHeight;
+		this.background = background;
+	}
+
+	/**
+	 * Draws a rectangle of the image, split into bands of rows that are filled in parallel
+	 */
+	private void rasterize(int left, int top, int right, int bottom) {
+		ForkJoinPool.commonPool().invoke(new RasterTask(this, left, top, right, bottom));
+	}
+
+	/**
+	 * Fills columns {@code left} to {@code right} of rows {@code top} to {@code bottom} (each exclusive of the second) of the image
+	 */
+	void rasterizeRegion(int left, int top, int right, int bottom) {
+		for (int row = top; row < bottom; row++) {
+			Arrays.fill(pixels, row * width + left, row * width + right, background);
+		}
+		if (range.getMaxColumn() < range.getMinColumn()) {
+			return;
+		}
+		//only the tiles whose columns and rows can reach the region
+		float regionMinX = cameraX + (left - halfWidth) / zoom;
+		float regionMaxX = cameraX + (right - halfWidth) / zoom;
+		float regionMinY = cameraY + (top - halfHeight) / zoom;
+		float regionMaxY = cameraY + (bottom - halfHeight) / zoom;
+		int firstColumn = Math.max(range.getMinColumn(), (int) Math.floor((regionMinX - 2f) / 1.5f) - 1);
+		int lastColumn = Math.min(range.getMaxColumn(), (int) Math.ceil(regionMaxX / 1.5f) + 1);
+		int regionMinRow = (int) Math.floor(regionMinY / SQRT_3) - 2;
+		int regionMaxRow = (int) Math.ceil(regionMaxY / SQRT_3) + 1;
+		for (int x = firstColumn; x <= lastColumn; x++) {
+			int lastRow = Math.min(range.getMaxRow(x), regionMaxRow);
+			for (int y = Math.max(range.getMinRow(x), regionMinRow); y <= lastRow; y++) {
+				drawTile(x, y, left, top, right, bottom);
+			}
+		}
+	}
+
+	/**
+	 * Draws a single tile over what the image shows, such as after the tile's color has changed
+	 *
+	 * Only the tile's own pixels are written, so the rest of the image is left exactly as if the whole frame had been drawn again.
+	 * @param world
+	 * @param colors the packed color of every tile
+	 * @param lattice the on-screen vertices, updated for at least the tile
+	 * @param x
+	 * @param y
+	 */
+	public void repaint(WorldData world, int[] colors, VertexLattice lattice, int x, int y) {
+		this.world = world;
+		this.colors = colors;
+		this.lattice = lattice;
+		drawTile(x, y, 0, 0, width, height);
+	}
+
+	/**
+	 * Fills the part of a tile within a rectangle of the image
+	 */
+	private void drawTile(int x, int y, int left, int top, int right, int bottom) {
+		int vx = 3 * x;
+		int vy = 2 * y + (x & 1);
+		int yTop = lattice.getScreenY(vy - 1);
+		int yBottom = lattice.getScreenY(vy + 1);
+		if (yBottom <= top || yTop >= bottom) {
+			return;
+		}
+		int xLeft = lattice.getScreenX(vx - 2);
+		int xRight = lattice.getScreenX(vx + 2);
+		if (xRight <= left || xLeft >= right) {
+			return;
+		}
+		int yMiddle = lattice.getScreenY(vy);
+		int xTopLeft = lattice.getScreenX(vx - 1);
+		int xTopRight = lattice.getScreenX(vx + 1);
+		int id = world.index(x, y);
+		fillHex(xLeft, xTopLeft, xTopRight, xRight, yTop, yMiddle, yBottom, colors[id], left, top, right, bottom);
+	}
+
+	/**
+	 * Fills the part of a hexagon within a rectangle of the image
+	 *
+	 * The corners are (xTopLeft, yTop), (xTopRight, yTop), (xRight, yMiddle), (xTopRight, yBottom), (xTopLeft, yBottom) and (xLeft, yMiddle).
+	 */
+	private void fillHex(int xLeft, int xTopLeft, int xTopRight, int xRight, int yTop, int yMiddle, int yBottom, int rgb, int left, int top, int right, int bottom) {
+		int firstRow = Math.max(top, yTop);
+		int lastRow = Math.min(bottom, yBottom);
+		for (int row = firstRow; row < lastRow; row++) {
+			double center = row + 0.5;
+			double leftEdge;
+			double rightEdge;
+			if (center < yMiddle) {
+				leftEdge = edgeX(xTopLeft, yTop, xLeft, yMiddle, center);
+				rightEdge = edgeX(xTopRight, yTop, xRight, yMiddle, center);
+			}
+			else {
+				leftEdge = edgeX(xLeft, yMiddle, xTopLeft, yBottom, center);
+				rightEdge = edgeX(xRight, yMiddle, xTopRight, yBottom, center);
+			}
+			int start = Math.max(left, (int) Math.ceil(leftEdge - 0.5));
+			int end = Math.min(right, (int) Math.ceil(rightEdge - 0.5));
+			if (start < end) {
+				Arrays.fill(pixels, row * width + start, row * width + end, rgb);
+			}
+		}
+	}
+
+	/**
+	 * Returns the x value of an edge, going down from (x1, y1) to (x2, y2), at a y value between them
+	 */
+	private static double edgeX(int x1, int y1, int x2, int y2, double y) {
+		return x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+	}
+
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
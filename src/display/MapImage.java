@@ -0,0 +1,173 @@
+package display;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import gameObject.ColorCache;
+import gameObject.Palette;
+import gameObject.TileMap;
+import gameObject.VertexLattice;
+
+/**
+ * This class keeps an image of the whole map for each map mode, drawn once at a low zoom, so that zoomed out frames are a single scaled
+ * {@code drawImage()} instead of a polygon for every tile
+ *
+ * An image is kept for each of the last few map modes' colors drawn, as many as fit in {@code MAX_BYTES}, so switching back to one
+ * doesn't draw its image again. Recoloring a tile gives a copy of the colors with the same source, and only the tiles that differ are
+ * drawn again.
+ *
+ * The image is drawn with the same polygons as the {@code Renderer} at {@code getZoom()}, so at that zoom it looks exactly like drawing
+ * each tile; below it, tiles are only a few pixels wide and scaling the image down differs from drawing them by only a few edge pixels.
+ */
+public class MapImage {
+
+	public static final float LOD_ZOOM = 4f; //below this zoom, where hexagons are less than 8 pixels wide, the image is drawn instead of the tiles
+	private static final int MAX_SIZE = 4096; //the most pixels wide or long an image may be; bigger maps get an image at a lower zoom
+	private static final long MAX_BYTES = 64L * 1024 * 1024; //the most memory the kept images may take, though there is always at least one
+
+	private static final float SQRT_3 = (float) Math.sqrt(3);
+
+	private TileMap tileMap;
+	private float zoom; //the zoom the images are drawn at
+	private int width;
+	private int height;
+	private BufferedImage[] images; //the images drawn most recently first, or null
+	private int[][] sources; //the color source of each image, as in Snapshot.getColorSource()
+	private int[][] drawn; //the colors each image was last drawn from, the source or a recolored copy of it
+
+	public MapImage(TileMap tileMap) {
+		this.tileMap = tileMap;
+		int mapWidth = tileMap.getWorld().getWidth();
+		int mapLength = tileMap.getWorld().getLength();
+		//the map reaches 1.5 units right for each column plus half a unit, and SQRT_3 down for each row plus half of that
+		float worldWidth = 1.5f * mapWidth + 0.5f;
+		float worldHeight = SQRT_3 * mapLength + SQRT_3 / 2;
+		zoom = Math.min(LOD_ZOOM, Math.min(MAX_SIZE / worldWidth, MAX_SIZE / worldHeight));
+		width = (int) Math.ceil(worldWidth * zoom) + 1;
+		height = (int) Math.ceil(worldHeight * zoom) + 1;
+		long imageBytes = 4L * width * height; //TYPE_INT_RGB
+		images = new BufferedImage[(int) Math.max(1, Math.min(ColorCache.NUM_MAP_MODES, MAX_BYTES / imageBytes))];
+		sources = new int[images.length][];
+		drawn = new int[images.length][];
+	}
+
+	/**
+	 * Returns {@code true} if frames at the given zoom should be drawn from the image
+	 * @param cameraZoom
+	 * @return
+	 */
+	public boolean isUsedAt(float cameraZoom) {
+		return cameraZoom < zoom;
+	}
+
+	/**
+	 * Draws the map, scaled and moved to the camera
+	 * @param g
+	 * @param colorSource the colors' source, which the image is kept for
+	 * @param colors the packed color of every tile
+	 * @param cameraX
+	 * @param cameraY
+	 * @param cameraZoom
+	 * @param halfWidth
+	 * @param halfHeight
+	 */
+	public void draw(Graphics g, int[] colorSource, int[] colors, float cameraX, float cameraY, float cameraZoom, int halfWidth, int halfHeight) {
+		BufferedImage image = getImage(colorSource, colors);
+		//pixel i of the image covers the units from i / zoom to (i + 1) / zoom
+		int x1 = Math.round(-cameraX * cameraZoom) + halfWidth;
+		int y1 = Math.round(-cameraY * cameraZoom) + halfHeight;
+		int x2 = Math.round((width / zoom - cameraX) * cameraZoom) + halfWidth;
+		int y2 = Math.round((height / zoom - cameraY) * cameraZoom) + halfHeight;
+		g.drawImage(image, x1, y1, x2, y2, 0, 0, width, height, null);
+	}
+
+	/**
+	 * Returns the image of a color array, drawing it if its source isn't one of the last few drawn
+	 *
+	 * When a map mode's colors are recomputed, they are a new source, so the image is drawn again.
+	 * @param colorSource
+	 * @param colors
+	 * @return
+	 */
+	private BufferedImage getImage(int[] colorSource, int[] colors) {
+		int i = 0;
+		while (i < sources.length - 1 && sources[i] != colorSource) {
+			i++;
+		}
+		BufferedImage image;
+		if (sources[i] != colorSource) {
+			image = createImage(colors);
+		}
+		else {
+			image = images[i];
+			if (drawn[i] != colors) {
+				redrawChanged(image, drawn[i], colors);
+			}
+		}
+		//move it to the front, dropping the least recently drawn image if it is new
+		System.arraycopy(images, 0, images, 1, i);
+		System.arraycopy(sources, 0, sources, 1, i);
+		System.arraycopy(drawn, 0, drawn, 1, i);
+		images[0] = image;
+		sources[0] = colorSource;
+		drawn[0] = colors;
+		return image;
+	}
+
+	/**
+	 * Draws the tiles whose color differs between two color arrays into an image drawn from the first
+	 */
+	private void redrawChanged(BufferedImage image, int[] oldColors, int[] colors) {
+		Graphics g = image.getGraphics();
+		int mapWidth = tileMap.getWorld().getWidth();
+		int mapLength = tileMap.getWorld().getLength();
+		VertexLattice lattice = new VertexLattice();
+		lattice.update(0, 0, zoom, 0, 0, 0, mapWidth - 1, 0, mapLength - 1);
+		int[] xPoints = new int[6];
+		int[] yPoints = new int[6];
+		for (int x = 0; x < mapWidth; x++) {
+			for (int y = 0; y < mapLength; y++) {
+				int id = tileMap.getWorld().index(x, y);
+				if (colors[id] != oldColors[id]) {
+					g.setColor(Palette.getColor(colors[id]));
+					lattice.getPolygon(x, y, xPoints, yPoints);
+					g.fillPolygon(xPoints, yPoints, 6);
+				}
+			}
+		}
+		g.dispose();
+	}
+
+	/**
+	 * Draws every tile of the map at {@code zoom}, with the map's top left corner at the image's
+	 */
+	private BufferedImage createImage(int[] colors) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.getGraphics();
+		int mapWidth = tileMap.getWorld().getWidth();
+		int mapLength = tileMap.getWorld().getLength();
+		VertexLattice lattice = new VertexLattice();
+		lattice.update(0, 0, zoom, 0, 0, 0, mapWidth - 1, 0, mapLength - 1);
+		int[] xPoints = new int[6];
+		int[] yPoints = new int[6];
+		int color = 0; //packed colors always have an alpha of 255, so the first tile sets the color
+		for (int x = 0; x < mapWidth; x++) {
+			for (int y = 0; y < mapLength; y++) {
+				int rgb = colors[tileMap.getWorld().index(x, y)];
+				if (rgb != color) {
+					color = rgb;
+					g.setColor(Palette.getColor(rgb));
+				}
+				lattice.getPolygon(x, y, xPoints, yPoints);
+				g.fillPolygon(xPoints, yPoints, 6);
+			}
+		}
+		g.dispose();
+		return image;
+	}
+
+	public float getZoom() {
+		return zoom;
+	}
+
+}
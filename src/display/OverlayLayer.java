@@ -0,0 +1,66 @@
+package display;
+
+import java.awt.Color;
+import java.awt.Graphics;
+
+import engine.Snapshot;
+import gameObject.Palette;
+import gameObject.VertexLattice;
+
+/**
+ * This class draws what changes every frame, such as the pulsing highlight of the selected tile, as the top layer
+ *
+ * It is drawn over the finished frame rather than into the cached layers, so animating it never makes them draw anything again.
+ */
+public class OverlayLayer {
+
+	private static final long PULSE_NANOS = 10000000000L / 3; //how long one pulse takes, the 100 frames it took at 30 frames per second
+
+	private int[] xPoints;
+	private int[] yPoints;
+	private int[] square; //the left, top and size of a settlement's square
+
+	public OverlayLayer() {
+		xPoints = new int[6];
+		yPoints = new int[6];
+		square = new int[3];
+	}
+
+	/**
+	 * Draws the overlay, with its animation as it is at a given time, so it moves at the same speed at any frame rate
+	 * @param g
+	 * @param snapshot the game data the frame is drawn from, which has the selected tile
+	 * @param lattice the on-screen vertices, updated for at least {@code range}
+	 * @param range the visible tiles
+	 * @param time the {@code System.nanoTime()} the frame is drawn at
+	 */
+	public void draw(Graphics g, Snapshot snapshot, VertexLattice lattice, VisibleRange range, long time) {
+		float phase = Math.floorMod(time, PULSE_NANOS) / (float) PULSE_NANOS; //how far through the pulse, from 0 to 1
+		shadeSelectedTile(g, snapshot, lattice, range, phase);
+	}
+
+	/**
+	 * Shades in the selected tile, if it is in the visible range, with its settlement on top again
+	 */
+	private void shadeSelectedTile(Graphics g, Snapshot snapshot, VertexLattice lattice, VisibleRange range, float phase) {
+		if (snapshot.getSelectedId() < 0 || !range.contains(snapshot.getSelectedX(), snapshot.getSelectedY())) {
+			return;
+		}
+		lattice.getPolygon(snapshot.getSelectedX(), snapshot.getSelectedY(), xPoints, yPoints);
+		Color color = Palette.getColor(snapshot.getSelectedColor());
+		float pulse = 2 * Math.abs(0.5f - phase); //how much of the tile's own color shows, the rest being white
+		int red = Math.min(255, (int) (color.getRed() * pulse + 255 * (1 - pulse)));
+		int green = Math.min(255, (int) (color.getGreen() * pulse + 255 * (1 - pulse)));
+		int blue = Math.min(255, (int) (color.getBlue() * pulse + 255 * (1 - pulse)));
+		g.setColor(new Color(red, green, blue));
+		g.fillPolygon(xPoints, yPoints, 6);
+		g.setColor(Color.white);
+		g.drawPolygon(xPoints, yPoints, 6);
+		if (snapshot.hasSelectedSettlement()) {
+			g.setColor(Color.BLACK);
+			VertexLattice.getSettlementSquare(xPoints, yPoints, square, 0);
+			g.fillRect(square[0], square[1], square[2], square[2]);
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package display;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class fills a band of rows of a rectangle of a {@code HexRasterizer}'s image
+ *
+ * Each band only writes its own rows, so bands can be filled in parallel.
+ */
+class RasterTask extends RecursiveAction {
+
+	private static final long serialVersionUID = -6191370244538120357L;
+
+	private static final int MIN_BAND_ROWS = 32; //bands smaller than this are filled by a single thread
+
+	private HexRasterizer rasterizer;
+	private int left;
+	private int top;
+	private int right;
+	private int bottom;
+
+	RasterTask(HexRasterizer rasterizer, int left, int top, int right, int bottom) {
+		this.rasterizer = rasterizer;
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+
+	@Override
+	protected void compute() {
+		if (bottom - top <= MIN_BAND_ROWS) {
+			rasterizer.rasterizeRegion(left, top, right, bottom);
+			return;
+		}
+		int middle = (top + bottom) >>> 1;
+		invokeAll(new RasterTask(rasterizer, left, top, right, middle), new RasterTask(rasterizer, left, middle, right, bottom));
+	}
+
+}
@@ -2,86 +2,191 @@ package display;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.image.BufferedImage; //may be used for alternative rendering strategy
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import engine.Game;
-import gameObject.Point;
+import engine.Snapshot;
+import gameObject.Chunk;
+import gameObject.ChunkedWorld;
+import gameObject.Palette;
 import gameObject.Tile;
+import gameObject.VertexLattice;
+import model.WorldData;
+import profiling.Profiler;
+import profiling.RenderPhaseEvent;
 
 /**
  * This class handles most of the rendering, i.e. drawing the hexagons to the screen
  *
+ * A frame is composed of three layers: the tiles, which the rasterizer keeps from frame to frame; the settlement markers, see
+ * {@code SettlementLayer}; and the overlay, see {@code OverlayLayer}, which is the only part drawn from scratch every frame.
  */
 public class Renderer {
 
 	private Game game;
-	private List<Tile> tiles;
-	private List<Tile> visibleTiles;
 	private final static Color outlineColor = Color.white; //outline if we have each tile have an outline
 	
-	//used for alternative rendering strategy
-	private final static float TWO_DIV_SQRT_3 = (float) (2 / Math.sqrt(3));
-	private final static int SQRT_3_DIV_2 = (int) (Math.sqrt(3) / 2);
+	private static boolean rasterize = !"false".equals(System.getProperty("itd.raster")); //Tiles are drawn by the HexRasterizer unless -Ditd.raster=false
+	private static boolean retain = !"false".equals(System.getProperty("itd.retained")); //The rasterizer's last frame is reused unless -Ditd.retained=false
 	
-	private float animationCounter;
+	private MapImage mapImage; //drawn instead of the tiles when zoomed out, or null for a streamed world
+	private ChunkImages chunkImages; //drawn instead of a streamed world's tiles when zoomed out, or null for a map
+	private VisibleRange visibleRange; //the tiles the camera can see this frame
+	private VertexLattice lattice; //the on-screen positions of the vertices near the camera
+	private HexRasterizer rasterizer; //draws the tiles into an image that is shown in one drawImage()
+	private boolean rasterized; //whether the rasterizer or Graphics.fillPolygon() draws the tiles
+	private boolean retained; //whether frames reuse the last one, scrolled if the camera panned, and only draw the tiles that changed
+	//what the rasterizer's image was last drawn for, to tell whether it can be reused
+	private boolean frameValid;
+	private int frameOriginX;
+	private int frameOriginY;
+	private float frameZoom;
+	private int[] frameColors;
+	private long frameSequence; //the snapshot the last frame was drawn from
+	private SettlementLayer settlementLayer; //drawn over the tiles, or null for a streamed world
+	private OverlayLayer overlayLayer; //drawn over everything else
+	//where the camera is for the frame being drawn, between its last two updates
+	private float cameraX;
+	private float cameraY;
+	private float zoom;
+	//the on-screen coordinates of the vertices of the hexagon being drawn, in the form Graphics.fillPolygon() takes them
+	private int[] xPoints;
+	private int[] yPoints;
+	private int[] square; //the left, top and size of a settlement's square
 	
 	public Renderer(Game game) {
 		this.game = game;
-		tiles = new ArrayList<>();
-		//Add all the tiles to the list
-		for (int i = 0; i < game.getTiles().length; i++) {
-			for (int j = 0; j < game.getTiles()[0].length; j++) {
-				tiles.add(game.getTiles()[i][j]);
-			}
+		if (game.getTileMap() != null) {
+			mapImage = new MapImage(game.getTileMap());
+			settlementLayer = new SettlementLayer(game.getTileMap().getWorld());
+		}
+		else {
+			chunkImages = new ChunkImages();
 		}
-		animationCounter = 0;
+		overlayLayer = new OverlayLayer();
+		visibleRange = new VisibleRange();
+		lattice = new VertexLattice();
+		rasterizer = new HexRasterizer();
+		rasterized = rasterize;
+		retained = retain;
+		frameValid = false;
+		frameSequence = -1;
+		xPoints = new int[6];
+		yPoints = new int[6];
+		square = new int[3];
 	}
 	
 	/**
-	 * Renders all the hexagons (tiles) (and their borders if enabled)
+	 * Renders all the hexagons (tiles) (and their borders if enabled) as the game is now, on the thread that updates it
 	 * @param g
 	 */
 	public void render(Graphics g, int width, int height) {
-
-		g.setColor(Color.BLACK);
-        g.fillRect(0, 0, width, height);
-        
-		//Initialize buffered image for alternative rendering strategy
-		//BufferedImage img = new BufferedImage(game.getMainFrame().getDisplay().getWidth(), game.getMainFrame().getDisplay().getHeight(), BufferedImage.TYPE_INT_RGB);
+		render(g, width, height, game.snapshot(), 1f);
+	}
+	
+	/**
+	 * Renders all the hexagons (tiles) of a snapshot, with the camera part of the way from where it was before that update to after it
+	 * 
+	 * Everything that changes between updates is read from the snapshot, and only the map's layout from the game, so this can run on its own
+	 * thread while the game updates
+	 * @param g
+	 * @param width
+	 * @param height
+	 * @param snapshot
+	 * @param alpha how far through the time between updates the frame is, from 0 to 1
+	 */
+	public void render(Graphics g, int width, int height, Snapshot snapshot, float alpha) {
+		cameraX = snapshot.getCameraX(alpha);
+		cameraY = snapshot.getCameraY(alpha);
+		zoom = snapshot.getZoom(alpha);
+		int[] colors = snapshot.getColors();
+		Profiler profiler = game.getProfiler();
 		
 		//The boundaries halfway through the window on screen
 		int halfWidth = width / 2;
 		int halfHeight = height / 2;
 		
-		//Update the positions of each point in relation to the camera's position and zoom
-		game.getTileMap().getPoints().parallelStream().forEach((Point p) -> {
-			p.update(game.getCamera().getX(), game.getCamera().getY(), game.getCamera().getZoom(), halfWidth, halfHeight);
-		});
+		if (game.getChunkedWorld() != null) {
+			long start = System.nanoTime();
+			RenderPhaseEvent fillEvent = RenderPhaseEvent.start();
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, width, height);
+			renderChunks(g, game.getChunkedWorld(), halfWidth, halfHeight);
+			fillEvent.finish(Profiler.FILL, game.getChunkedWorld().getNumTiles(), visibleRange.getNumTiles(), zoom);
+			long filled = System.nanoTime();
+			profiler.record(Profiler.FILL, filled - start);
+			//settlements are drawn with their tiles, so only the selection is left
+			RenderPhaseEvent overlayEvent = RenderPhaseEvent.start();
+			overlayLayer.draw(g, snapshot, lattice, visibleRange, filled);
+			overlayEvent.finish(Profiler.OVERLAY, game.getChunkedWorld().getNumTiles(), visibleRange.getNumTiles(), zoom);
+			profiler.record(Profiler.OVERLAY, System.nanoTime() - filled);
+			return;
+		}
 		
 		//Calculate the minimum and maximum visible x and y values depending on the camera position and zoom in advance so we can reuse it without calculating it for each point
-		float minX = game.getCamera().getX() - (halfWidth / game.getCamera().getZoom());
-		float maxX = game.getCamera().getX() + (halfWidth / game.getCamera().getZoom());
-		float minY = game.getCamera().getY() - (halfHeight / game.getCamera().getZoom());
-		float maxY = game.getCamera().getY() + (halfHeight / game.getCamera().getZoom());
-		
-		//Determine which tiles are visible
-		visibleTiles = tiles.parallelStream().filter((Tile t) -> {
-			return t.isVisible(minX, maxX, minY, maxY);
-		}).collect(Collectors.toList());
+		//(a pixel wider, as vertices are rounded down to whole pixels)
+		float minX = cameraX - ((halfWidth + 1) / zoom);
+		float maxX = cameraX + ((halfWidth + 1) / zoom);
+		float minY = cameraY - ((halfHeight + 1) / zoom);
+		float maxY = cameraY + ((halfHeight + 1) / zoom);
 		
-		//Update the x and y values stored in the hexagons (tiles)
-		visibleTiles.parallelStream().forEach((Tile t) -> {
-			t.updatePoints();
-		});
+		//Determine which tiles are visible, and move only their vertices to the screen
+		long start = System.nanoTime();
+		RenderPhaseEvent cullEvent = RenderPhaseEvent.start();
+		Tile[][] tiles = game.getTiles();
+		int numTiles = tiles.length * tiles[0].length;
+		visibleRange.update(minX, maxX, minY, maxY, tiles.length, tiles[0].length);
+		int numVisible = visibleRange.getNumTiles();
+		cullEvent.finish(Profiler.CULL, numTiles, numVisible, zoom);
+		long culled = System.nanoTime();
+		RenderPhaseEvent transformEvent = RenderPhaseEvent.start();
+		lattice.update(cameraX, cameraY, zoom, halfWidth, halfHeight,
+				visibleRange.getMinColumn(), visibleRange.getMaxColumn(), visibleRange.getMinRow(), visibleRange.getMaxRow());
+		transformEvent.finish(Profiler.TRANSFORM, numTiles, numVisible, zoom);
+		long transformed = System.nanoTime();
+		profiler.record(Profiler.CULL, culled - start);
+		profiler.record(Profiler.TRANSFORM, transformed - culled);
 		
-		//Draw each hexagon (tile)
-		visibleTiles.forEach((Tile t) -> {
-			drawTile(g, t);
-			//drawHex(img, t.getColor(), t.getXPoints()[0], t.getYPoints()[0], hexwidth, hexheight);
-		});
+		RenderPhaseEvent fillEvent = RenderPhaseEvent.start();		
+		if (mapImage.isUsedAt(zoom)) {
+			//Hexagons are only a few pixels wide, so draw the whole map as one scaled image
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, width, height);
+			mapImage.draw(g, snapshot.getColorSource(), colors, cameraX, cameraY, zoom, halfWidth, halfHeight);
+		}
+		else if (rasterized) {
+			if (snapshot.hasMissedDirtyIds(frameSequence)) {
+				frameValid = false; //a snapshot that wasn't drawn recolored tiles
+			}
+			if (retained && isFrameReusable(width, height, snapshot.getColorSource())) {
+				int dx = lattice.getOriginX() - frameOriginX;
+				int dy = lattice.getOriginY() - frameOriginY;
+				if (dx != 0 || dy != 0) {
+					//The camera panned by whole pixels, so move the last frame and only draw the strips that came into view
+					rasterizer.scroll(dx, dy, game.getTileMap().getWorld(), colors, lattice, visibleRange, cameraX, cameraY, zoom, halfWidth, halfHeight, Color.BLACK.getRGB());
+				}
+				//The last frame only needs the tiles that changed drawn again
+				if (snapshot.getSequence() != frameSequence) {
+					repaintDirtyTiles(colors, snapshot.getDirtyIds());
+				}
+			}
+			else {
+				//Fill the visible hexagons' pixels in parallel bands, then show them all at once
+				rasterizer.resize(width, height);
+				rasterizer.render(game.getTileMap().getWorld(), colors, lattice, visibleRange, cameraX, cameraY, zoom, halfWidth, halfHeight, Color.BLACK.getRGB());
+			}
+			rememberFrame(snapshot.getColorSource());
+			g.drawImage(rasterizer.getImage(), 0, 0, null);
+		}
+		else {
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, width, height);
+			//Draw each visible hexagon (tile)
+			for (int x = visibleRange.getMinColumn(); x <= visibleRange.getMaxColumn(); x++) {
+				for (int y = visibleRange.getMinRow(x); y <= visibleRange.getMaxRow(x); y++) {
+					drawTile(g, tiles[x][y], colors);
+				}
+			}
+		}
 
 		//Draw each hexagon's (tile's) outline
 //		g.setColor(outlineColor);
@@ -89,103 +194,149 @@ public class Renderer {
 //			drawOutline(img, t);
 //		});
 
-		//Shade the current selected tile
-		shadeSelectedTile(g, minX, maxX, minY, maxY);
+		if (!rasterized || mapImage.isUsedAt(zoom)) {
+			frameValid = false; //the rasterizer's image missed this frame's changes
+		}
+		frameSequence = snapshot.getSequence();
+		fillEvent.finish(Profiler.FILL, numTiles, numVisible, zoom);
+		long filled = System.nanoTime();
+		profiler.record(Profiler.FILL, filled - transformed);
+		
+		//Draw the settlements, then shade the current selected tile, over the tiles rather than in them, so the pulse never has to be undone
+		RenderPhaseEvent overlayEvent = RenderPhaseEvent.start();
+		settlementLayer.draw(g, snapshot.getSettlementIds(), lattice, visibleRange, zoom, width, height);
+		overlayLayer.draw(g, snapshot, lattice, visibleRange, filled);
+		overlayEvent.finish(Profiler.OVERLAY, numTiles, numVisible, zoom);
+		profiler.record(Profiler.OVERLAY, System.nanoTime() - filled);
 	}
 	
 	/**
-	 * Draws an individual {@code Tile} onto a given {@code Graphics} object
-	 **/
-	private void drawTile(Graphics g, Tile t) {
-		g.setColor(t.getColor());
-		g.fillPolygon(t.getXPoints(), t.getYPoints(), 6);
-		
-		//Draw a settlement if there is one
-		if (t.getTileData().getSettlement() != null) {
-			g.setColor(Color.BLACK);
-			int size = t.getXPoints()[1] - t.getXPoints()[0];
-			int centerX = t.getXPoints()[0] + size / 2;
-			int centerY = t.getYPoints()[0] + (int)(size * (Math.sqrt(3) / 2));
-			g.fillRect(centerX - size/2, centerY - size/2, size, size);
-		}
+	 * Returns {@code true} if the rasterizer's image was drawn for the same zoom, screen size and map mode as this frame, so it is at most
+	 * a scroll away from it
+	 * @param width
+	 * @param height
+	 * @param colorSource the snapshot's {@code getColorSource()}, which only changes when every tile may have been recolored
+	 * @return
+	 */
+	private boolean isFrameReusable(int width, int height, int[] colorSource) {
+		return frameValid && frameZoom == zoom && rasterizer.getWidth() == width && rasterizer.getHeight() == height && frameColors == colorSource;
 	}
 	
 	/**
-	 * Shades in the selected {@code Tile}
-	 * @param g
-	 * @param minX the minimum visible x value
-	 * @param maxX the maximum visible x value
-	 * @param minY the minimum visible y value
-	 * @param maxY the maximum visible y value
+	 * Records what the rasterizer's image was just drawn for
 	 */
-	private void shadeSelectedTile(Graphics g, float minX, float maxX, float minY, float maxY) {
-		Tile st = game.getSelectedTile();
-		if (st != null && st.isVisible(minX, maxX, minY, maxY)) {
-			int red = (int) ((st.getColor().getRed() * (2 * Math.abs(0.5f - animationCounter)) + (255 * (1 - (2 * Math.abs(0.5f - animationCounter))))));
-			if (red > 255) {
-				red = 255;
-			}
-			int green = (int) ((st.getColor().getGreen() * (2 * Math.abs(0.5f - animationCounter)) + (255 * (1 - (2 * Math.abs(0.5f - animationCounter))))));
-			if (green > 255) {
-				green = 255;
-			}
-			int blue = (int) ((st.getColor().getBlue() * (2 * Math.abs(0.5f - animationCounter)) + (255 * (1 - (2 * Math.abs(0.5f - animationCounter))))));
-			if (blue > 255) {
-				blue = 255;
+	private void rememberFrame(int[] colorSource) {
+		frameValid = true;
+		frameOriginX = lattice.getOriginX();
+		frameOriginY = lattice.getOriginY();
+		frameZoom = zoom;
+		frameColors = colorSource;
+	}
+	
+	/**
+	 * Draws the visible tiles that were recolored since the last frame into the rasterizer's image
+	 */
+	private void repaintDirtyTiles(int[] colors, int[] dirtyIds) {
+		WorldData world = game.getTileMap().getWorld();
+		for (int id : dirtyIds) {
+			int x = world.getX(id);
+			int y = world.getY(id);
+			if (visibleRange.contains(x, y)) {
+				rasterizer.repaint(world, colors, lattice, x, y);
 			}
-			g.setColor(new Color(red, green, blue));
-			g.fillPolygon(st.getXPoints(), st.getYPoints(), 6);
-			g.setColor(Color.white);
-			g.drawPolygon(st.getXPoints(), st.getYPoints(), 6);
 		}
-		animationCounter += 0.01f;
-		if (animationCounter > 1f) {
-			animationCounter = 0f;
+	}
+	
+	/**
+	 * Renders the loaded tiles of a streamed world that are visible, from an image of each chunk when zoomed out as far as the map's image is used
+	 * @param g
+	 * @param world
+	 * @param halfWidth
+	 * @param halfHeight
+	 */
+	private void renderChunks(Graphics g, ChunkedWorld world, int halfWidth, int halfHeight) {
+		float minX = cameraX - (halfWidth / zoom);
+		float maxX = cameraX + (halfWidth / zoom);
+		float minY = cameraY - (halfHeight / zoom);
+		float maxY = cameraY + (halfHeight / zoom);
+		
+		visibleRange.update(minX, maxX, minY, maxY, world.getWidth(), world.getLength());
+		int minColumn = visibleRange.getMinColumn();
+		int maxColumn = visibleRange.getMaxColumn();
+		int minRow = visibleRange.getMinRow();
+		int maxRow = visibleRange.getMaxRow();
+		
+		lattice.update(cameraX, cameraY, zoom, halfWidth, halfHeight, minColumn, maxColumn, minRow, maxRow);
+		if (zoom < MapImage.LOD_ZOOM) {
+			//Hexagons are only a few pixels wide, so draw each chunk as an image
+			chunkImages.draw(g, world, visibleRange, cameraX, cameraY, zoom, 2 * halfWidth, 2 * halfHeight);
+			return;
 		}
-		if (st != null && st.getTileData().getSettlement() != null) {
-			g.setColor(Color.BLACK);
-			int size = st.getXPoints()[1] - st.getXPoints()[0];
-			int centerX = st.getXPoints()[0] + size / 2;
-			int centerY = st.getYPoints()[0] + (int)(size * (Math.sqrt(3) / 2));
-			g.fillRect(centerX - size/2, centerY - size/2, size, size);
+		for (int chunkY = minRow / ChunkedWorld.CHUNK_SIZE; chunkY <= maxRow / ChunkedWorld.CHUNK_SIZE; chunkY++) {
+			for (int chunkX = minColumn / ChunkedWorld.CHUNK_SIZE; chunkX <= maxColumn / ChunkedWorld.CHUNK_SIZE; chunkX++) {
+				Chunk chunk = world.getChunk(chunkX, chunkY);
+				if (chunk == null) {
+					continue; //not generated yet
+				}
+				int[] colors = chunk.getColors(); //read once, so the whole chunk is drawn in one map mode
+				int lastColumn = Math.min(maxColumn, chunk.getX0() + chunk.getWidth() - 1);
+				for (int x = Math.max(minColumn, chunk.getX0()); x <= lastColumn; x++) {
+					int lastRow = Math.min(visibleRange.getMaxRow(x), chunk.getY0() + chunk.getLength() - 1);
+					for (int y = Math.max(visibleRange.getMinRow(x), chunk.getY0()); y <= lastRow; y++) {
+						lattice.getPolygon(x, y, xPoints, yPoints);
+						g.setColor(Palette.getColor(colors[chunk.index(x, y)]));
+						g.fillPolygon(xPoints, yPoints, 6);
+						if (chunk.hasSettlement(x, y)) {
+							drawSettlement(g);
+						}
+					}
+				}
+			}
 		}
 	}
 	
-	//Alternative rendering strategy
-//	public void drawHex(BufferedImage img, Color tileColor, int x, int y, int sidelength, int hexheight) {
-//		long time = System.nanoTime();
-//		if (y > img.getHeight()) {
-//			return;
-//		}
-//		if (x > img.getWidth()) {
-//			return;
-//		}
-//		int upperYBound = y + hexheight;
-//		int crosspoint = y + (hexheight / 2);
-//		int color = tileColor.getRGB();
-//		if (y < 0) {
-//			y = 0;
-//		}
-//		if (upperYBound >= img.getHeight()) {
-//			upperYBound = img.getHeight() - 1;
-//		}
-//		for(int i = y; i <= upperYBound; i++) {
-//			int halfExtraWidth = ((int) ((i < crosspoint) ? (i - y) * TWO_DIV_SQRT_3 : (sidelength * 2) - ((i - y) * TWO_DIV_SQRT_3))) / 2;
-//			int upperXBound = x + sidelength + halfExtraWidth;
-//			int initJ = x - halfExtraWidth;
-//			if (initJ < 0) {
-//				initJ = 0;
-//			}
-//			if (upperXBound >= img.getWidth()) {
-//				upperXBound = img.getWidth() - 1;
-//			}
-//			for (int j = initJ; j <= upperXBound; j++) {
-//				img.setRGB(j, i, color);
-//			}
-//		}
-//		time = System.nanoTime() - time;
-//		System.out.println(time);
-//	}
+	/**
+	 * Sets whether tiles are drawn by the {@code HexRasterizer} or with {@code Graphics.fillPolygon()}
+	 * @param rasterized
+	 */
+	public void setRasterized(boolean rasterized) {
+		this.rasterized = rasterized;
+	}
+	
+	public boolean isRasterized() {
+		return rasterized;
+	}
+	
+	/**
+	 * Sets whether frames at the same zoom reuse the last frame, scrolling it if the camera panned and drawing only the tiles that changed,
+	 * or are drawn in full
+	 * @param retained
+	 */
+	public void setRetained(boolean retained) {
+		this.retained = retained;
+	}
+	
+	public boolean isRetained() {
+		return retained;
+	}
+	
+	/**
+	 * Draws an individual {@code Tile} onto a given {@code Graphics} object
+	 **/
+	private void drawTile(Graphics g, Tile t, int[] colors) {
+		lattice.getPolygon(t.getX(), t.getY(), xPoints, yPoints);
+		g.setColor(Palette.getColor(colors[t.getTileData().getId()]));
+		g.fillPolygon(xPoints, yPoints, 6);
+	}
+	
+	/**
+	 * Draws a settlement on the hexagon in {@code xPoints} and {@code yPoints}, for a streamed world
+	 */
+	private void drawSettlement(Graphics g) {
+		g.setColor(Color.BLACK);
+		VertexLattice.getSettlementSquare(xPoints, yPoints, square, 0);
+		g.fillRect(square[0], square[1], square[2], square[2]);
+	}
 	
 	/**
 	 * Draws part of an individual {@code Tile}'s outline onto a given {@code Graphics} object.
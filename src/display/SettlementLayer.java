@@ -0,0 +1,95 @@
+package display;
+
+import java.awt.Color;
+import java.awt.Graphics;
+
+import gameObject.VertexLattice;
+import model.WorldData;
+
+/**
+ * This class draws the settlement markers, as a layer over the tiles
+ *
+ * The ids of the tiles with settlements come from the snapshot, which only has a new array when a settlement is created, and the on-screen
+ * squares of the visible ones are only found again when that or the view changes, so a frame where neither happened only fills the squares
+ * it already has.
+ */
+public class SettlementLayer {
+
+	private WorldData world;
+	private int[] ids; //the tiles with settlements the squares were found from
+
+	//the squares of the visible settlements, as x, y and size, and the view they were found for
+	private int[] squares;
+	private int numSquares;
+	private boolean squaresValid;
+	private int squaresOriginX;
+	private int squaresOriginY;
+	private float squaresZoom;
+	private int squaresWidth;
+	private int squaresHeight;
+
+	private int[] xPoints;
+	private int[] yPoints;
+
+	public SettlementLayer(WorldData world) {
+		this.world = world;
+		squares = new int[0];
+		squaresValid = false;
+		xPoints = new int[6];
+		yPoints = new int[6];
+	}
+
+	/**
+	 * Draws the markers of the visible settlements
+	 * @param g
+	 * @param ids the tiles with settlements
+	 * @param lattice the on-screen vertices, updated for at least {@code range}
+	 * @param range the visible tiles
+	 * @param zoom
+	 * @param width
+	 * @param height
+	 */
+	public void draw(Graphics g, int[] ids, VertexLattice lattice, VisibleRange range, float zoom, int width, int height) {
+		if (ids != this.ids) {
+			this.ids = ids;
+			squaresValid = false;
+		}
+		if (!squaresValid || lattice.getOriginX() != squaresOriginX || lattice.getOriginY() != squaresOriginY || zoom != squaresZoom
+				|| width != squaresWidth || height != squaresHeight) {
+			findSquares(lattice, range);
+			squaresValid = true;
+			squaresOriginX = lattice.getOriginX();
+			squaresOriginY = lattice.getOriginY();
+			squaresZoom = zoom;
+			squaresWidth = width;
+			squaresHeight = height;
+		}
+		g.setColor(Color.BLACK);
+		for (int i = 0; i < numSquares * 3; i += 3) {
+			g.fillRect(squares[i], squares[i + 1], squares[i + 2], squares[i + 2]);
+		}
+	}
+
+	/**
+	 * Finds the squares of the settlements in the visible range
+	 */
+	private void findSquares(VertexLattice lattice, VisibleRange range) {
+		numSquares = 0;
+		for (int id : ids) {
+			int x = world.getX(id);
+			int y = world.getY(id);
+			if (!range.contains(x, y)) {
+				continue;
+			}
+			if (squares.length < (numSquares + 1) * 3) {
+				int[] grown = new int[Math.max(48, squares.length * 2)];
+				System.arraycopy(squares, 0, grown, 0, numSquares * 3);
+				squares = grown;
+			}
+			lattice.getPolygon(x, y, xPoints, yPoints);
+			VertexLattice.getSettlementSquare(xPoints, yPoints, squares, numSquares * 3);
+			numSquares++;
+		}
+	}
+
+}
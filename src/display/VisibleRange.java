@@ -0,0 +1,110 @@
+package display;
+
+/**
+ * This class contains the columns and rows of the tiles that the camera can see
+ *
+ * Because the grid is regular, the tiles that overlap the visible rectangle are exactly a range of columns, and in each column a range
+ * of rows that only depends on whether the column is odd. So the visible tiles are found in constant time, whatever the size of the map,
+ * and drawing them only has to loop over these ranges.
+ */
+public class VisibleRange {
+
+	private static final float SQRT_3 = (float) Math.sqrt(3);
+
+	private int minColumn;
+	private int maxColumn;
+	//the range of rows for even (0) and odd (1) columns
+	private int[] minRow;
+	private int[] maxRow;
+
+	public VisibleRange() {
+		minRow = new int[2];
+		maxRow = new int[2];
+		maxColumn = -1;
+	}
+
+	/**
+	 * Finds the tiles of a map that overlap a rectangle
+	 * @param minX the minimum visible x value
+	 * @param maxX the maximum visible x value
+	 * @param minY the minimum visible y value
+	 * @param maxY the maximum visible y value
+	 * @param width the width of the map, in tiles
+	 * @param length the length of the map, in tiles
+	 */
+	public void update(float minX, float maxX, float minY, float maxY, int width, int length) {
+		//a tile's right corner is at 1.5x + 2 and its left corner at 1.5x
+		minColumn = Math.max(0, (int) Math.ceil((minX - 2f) / 1.5f));
+		maxColumn = Math.min(width - 1, (int) Math.floor(maxX / 1.5f));
+		//a tile's top is at (y + parity / 2) * SQRT_3 and its bottom one SQRT_3 below that
+		for (int parity = 0; parity < 2; parity++) {
+			minRow[parity] = Math.max(0, (int) Math.ceil(minY / SQRT_3 - 1f - parity / 2f));
+			maxRow[parity] = Math.min(length - 1, (int) Math.floor(maxY / SQRT_3 - parity / 2f));
+		}
+	}
+
+	/**
+	 * Returns {@code true} if a tile is in the range
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public boolean contains(int x, int y) {
+		return x >= minColumn && x <= maxColumn && y >= minRow[x & 1] && y <= maxRow[x & 1];
+	}
+
+	/**
+	 * Returns the number of tiles in the range
+	 * @return
+	 */
+	public int getNumTiles() {
+		int num = 0;
+		for (int x = minColumn; x <= maxColumn; x++) {
+			num += Math.max(0, maxRow[x & 1] - minRow[x & 1] + 1);
+		}
+		return num;
+	}
+
+	public int getMinColumn() {
+		return minColumn;
+	}
+
+	public int getMaxColumn() {
+		return maxColumn;
+	}
+
+	/**
+	 * Returns the first visible row of a column
+	 * @param x
+	 * @return
+	 */
+	public int getMinRow(int x) {
+		return minRow[x & 1];
+	}
+
+	/**
+	 * Returns the last visible row of a column
+	 * @param x
+	 * @return
+	 */
+	public int getMaxRow(int x) {
+		return maxRow[x & 1];
+	}
+
+	/**
+	 * Returns the first visible row of any column
+	 * @return
+	 */
+	public int getMinRow() {
+		return Math.min(minRow[0], minRow[1]);
+	}
+
+	/**
+	 * Returns the last visible row of any column
+	 * @return
+	 */
+	public int getMaxRow() {
+		return Math.max(maxRow[0], maxRow[1]);
+	}
+
+}
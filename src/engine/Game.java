@@ -1,26 +1,54 @@
 package engine;
 
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 import display.Camera;
 import display.MainFrame;
+import gameObject.Chunk;
+import gameObject.ChunkedWorld;
 import gameObject.Tile;
 import gameObject.TileMap;
+import gen.WorldFile;
+import gen.WorldGenerator;
 import input.Input;
+import model.WorldData;
+import profiling.Profiler;
+import profiling.TickEvent;
 
 /**
  * This class connects the visual, interactive, and simulation parts of the game
+ * 
+ * The game is updated on the simulation thread, which is the only thread that changes it. Input from the event thread is queued and
+ * handled at the start of the next update, and the render thread only reads the {@code Snapshot} published after each update.
  */
 public class Game {
 	
 	private static int mapSize = 200; //The width and height of the map to be created
+	private static long seed = Long.getLong("itd.seed", new SplittableRandom().nextLong()); //The seed of the map, which can be set with -Ditd.seed=<seed>
+	private static int streamingSize = Integer.getInteger("itd.streamingSize", 0); //If set, the width and height of a world that is generated in chunks around the camera
+	private static long chunkBudget = Long.getLong("itd.chunkBudgetMB", 256) * 1024 * 1024; //The most memory the loaded chunks of a streamed world may use
+	private static String worldPath = System.getProperty("itd.world"); //If set, the file the map is loaded from, or saved to after it is generated
 	
 	private Tile selectedTile;
+	//the selected tile of a streamed world, or -1 if there is none
+	private int selectedColumn = -1;
+	private int selectedRow = -1;
 	
-	private MainFrame mainFrame;
-	private Input input;
+	private MainFrame mainFrame; //null when rendering offscreen
+	private Input input; //null when rendering offscreen
+	private int viewWidth; //the size of the view when there is no window
+	private int viewHeight;
 	
 	private TileMap tileMap;
+	private ChunkedWorld chunkedWorld; //Used instead of tileMap when the world is streamed
 	
 	private int updatesPerTick = 120; //The default number of updates that a tick takes
 	
@@ -29,9 +57,22 @@ public class Game {
 	
 	private Camera camera;
 	
+	private Profiler profiler; //how long the phases of frames and updates take
+	
+	private ConcurrentLinkedQueue<Runnable> commands; //input from the event thread, waiting for the next update
+	private AtomicReference<Snapshot> snapshot; //the newest published snapshot
+	private long sequence; //the number of updates that have been published
+	private long lastDirtySequence; //the sequence of the newest snapshot that had dirty tiles
+	private int settlementVersion; //the version of the settlements in settlementIds
+	private int[] settlementIds;
+	
 	public Game() {
+		commands = new ConcurrentLinkedQueue<>();
+		snapshot = new AtomicReference<>();
+		lastDirtySequence = -1;
+		profiler = new Profiler();
 		camera = new Camera();
-		tileMap = new TileMap(mapSize, mapSize);
+		createWorld();
 		mainFrame = new MainFrame(800, 600, this);
 		input = new Input(this);
 		
@@ -43,52 +84,262 @@ public class Game {
 		mainFrame.getDisplay().addMouseWheelListener(input);
 		
 		selectedTile = null;
+		publish();
+	}
+	
+	/**
+	 * Creates a game with the same map as {@code Game()}, but without opening a window or listening for input, for rendering offscreen
+	 * @param camera
+	 * @param viewWidth the width of the offscreen image in pixels
+	 * @param viewHeight the height of the offscreen image in pixels
+	 */
+	public Game(Camera camera, int viewWidth, int viewHeight) {
+		commands = new ConcurrentLinkedQueue<>();
+		snapshot = new AtomicReference<>();
+		lastDirtySequence = -1;
+		profiler = new Profiler();
+		this.camera = camera;
+		this.viewWidth = viewWidth;
+		this.viewHeight = viewHeight;
+		createWorld();
+		selectedTile = null;
+		publish();
+	}
+	
+	/**
+	 * Creates a game around an existing map without opening a window, for measuring the renderer and the map outside of the game loop
+	 * @param tileMap
+	 * @param camera
+	 */
+	public Game(TileMap tileMap, Camera camera) {
+		commands = new ConcurrentLinkedQueue<>();
+		snapshot = new AtomicReference<>();
+		lastDirtySequence = -1;
+		profiler = new Profiler();
+		this.tileMap = tileMap;
+		this.camera = camera;
+		selectedTile = null;
+		publish();
+	}
+	
+	/**
+	 * Creates the streamed world if one is set, and otherwise the map
+	 */
+	private void createWorld() {
+		if (chunkedWorld != null) {
+			chunkedWorld.shutdown();
+		}
+		if (streamingSize > 0) {
+			ChunkedWorld world = new ChunkedWorld(streamingSize, streamingSize, new WorldGenerator(streamingSize, streamingSize, seed), chunkBudget);
+			chunkedWorld = world;
+			//stop the chunk generators as the game exits, so none is still writing a chunk when the JVM halts
+			Runtime.getRuntime().addShutdownHook(new Thread(world::shutdown, "chunk-generator-shutdown"));
+			System.out.println("Seed: " + seed);
+		}
+		else {
+			tileMap = loadOrGenerate();
+			tileMap.updateMapMode(0);
+		}
+	}
+	
+	/**
+	 * Loads the map from the world file if there is one made with the same settings, and otherwise generates it (and saves it, if a world file is set)
+	 * 
+	 * A seed set with -Ditd.seed must match the file's; if none was set, the file's seed is used
+	 * @return
+	 */
+	private TileMap loadOrGenerate() {
+		WorldGenerator generator = new WorldGenerator(mapSize, mapSize, seed);
+		Path path = worldPath == null ? null : Paths.get(worldPath);
+		if (path != null && Files.isRegularFile(path)) {
+			try {
+				if (System.getProperty("itd.seed") == null) {
+					generator.setSeed(WorldFile.readHeader(path).getSeed());
+				}
+				if (WorldFile.matches(path, generator)) {
+					long start = System.nanoTime();
+					TileMap loaded = WorldFile.read(path);
+					seed = loaded.getSeed();
+					System.out.println("Seed: " + seed);
+					System.out.println("Loaded " + path + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+					return loaded;
+				}
+				System.out.println(path + " was made with different settings, generating a new map");
+				generator.setSeed(seed);
+			}
+			catch (IOException e) {
+				System.out.println("Could not load " + path + ": " + e.getMessage());
+				generator.setSeed(seed);
+			}
+		}
+		TileMap generated = generator.generate();
+		System.out.println("Seed: " + seed);
+		generator.printReports();
+		if (path != null) {
+			try {
+				WorldFile.write(path, generated, generator);
+			}
+			catch (IOException e) {
+				System.out.println("Could not save " + path + ": " + e.getMessage());
+			}
+		}
+		return generated;
 	}
 	
 	public void update() {
 		float dx = 0;
 		float dy = 0;
-		checkMapModes();
-		if (input.isPressed(KeyEvent.VK_W)) {
-			dy = -10 / camera.getZoom();
+		for (Runnable command = commands.poll(); command != null; command = commands.poll()) {
+			command.run();
 		}
-		if (input.isPressed(KeyEvent.VK_S)) {
-			dy = 10 / camera.getZoom();
+		checkMapModes();
+		if (tileMap != null) {
+			tileMap.updateColors(); //switches map mode once its colors are ready
 		}
-		if (input.isPressed(KeyEvent.VK_A)) {
-			dx = -10 / camera.getZoom();
+		float scroll = 0;
+		if (input != null) {
+			if (input.isPressed(KeyEvent.VK_W)) {
+				dy = -10 / camera.getZoom();
+			}
+			if (input.isPressed(KeyEvent.VK_S)) {
+				dy = 10 / camera.getZoom();
+			}
+			if (input.isPressed(KeyEvent.VK_A)) {
+				dx = -10 / camera.getZoom();
+			}
+			if (input.isPressed(KeyEvent.VK_D)) {
+				dx = 10 / camera.getZoom();
+			}
+			scroll = input.getMouseWheelRotation();
 		}
-		if (input.isPressed(KeyEvent.VK_D)) {
-			dx = 10 / camera.getZoom();
+		camera.update(dx, dy, scroll);
+		if (chunkedWorld != null) {
+			//request the chunks around what the camera can see
+			float halfWidth = getViewWidth() / 2 / camera.getZoom();
+			float halfHeight = getViewHeight() / 2 / camera.getZoom();
+			chunkedWorld.update(camera.getX() - halfWidth, camera.getX() + halfWidth, camera.getY() - halfHeight, camera.getY() + halfHeight);
 		}
-		camera.update(dx, dy, input.getMouseWheelRotation());
 		if (ticking) {
 			tickProgress++;
 		}
 		if (tickProgress == updatesPerTick) {
+			long start = System.nanoTime();
+			TickEvent event = new TickEvent();
+			event.begin();
 			tick();
+			event.end();
+			profiler.record(Profiler.TICK, System.nanoTime() - start);
+			if (event.shouldCommit()) {
+				event.tiles = tileMap != null ? tileMap.getWorld().getNumTiles() : chunkedWorld.getNumTiles();
+				event.commit();
+			}
 			tickProgress = 0;
 		}
 	}
 	
 	public void checkMapModes() {
+		if (input == null) {
+			return;
+		}
 		if (input.isPressed(KeyEvent.VK_0)) { //height
-			tileMap.updateMapMode(0);
+			updateMapMode(0);
 		}
 		if (input.isPressed(KeyEvent.VK_9)) { //temp
-			tileMap.updateMapMode(1);
+			updateMapMode(1);
 		}
 		if (input.isPressed(KeyEvent.VK_8)) { //land
-			tileMap.updateMapMode(2);
+			updateMapMode(2);
 		}
 		if (input.isPressed(KeyEvent.VK_7)) { //pop
-			tileMap.updateMapMode(3);
+			updateMapMode(3);
 		}
 		if (input.isPressed(KeyEvent.VK_6)) { //civ
-			tileMap.updateMapMode(4);
+			updateMapMode(4);
+		}
+	}
+	
+	private void updateMapMode(int mapMode) {
+		if (chunkedWorld != null) {
+			chunkedWorld.updateMapMode(mapMode);
+		}
+		else {
+			tileMap.updateMapMode(mapMode);
 		}
 	}
 	
+	/**
+	 * Makes a snapshot of what the render thread needs from the game as it is now
+	 * 
+	 * This takes the tiles recolored since the last snapshot, so it must be called on the simulation thread, and every snapshot it
+	 * makes should be published or drawn
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		sequence++;
+		int[] colors = null;
+		int[] colorSource = null;
+		int[] dirtyIds = new int[0];
+		if (tileMap != null) {
+			WorldData world = tileMap.getWorld();
+			colors = world.shareColors();
+			colorSource = world.getColorSource();
+			BitSet dirty = world.getDirty();
+			if (!dirty.isEmpty()) {
+				dirtyIds = dirty.stream().toArray();
+				dirty.clear();
+			}
+			if (settlementIds == null || world.getVersion(WorldData.SETTLEMENTS) != settlementVersion) {
+				settlementIds = world.getSettlementIds();
+				settlementVersion = world.getVersion(WorldData.SETTLEMENTS);
+			}
+		}
+		long selectedId = -1;
+		int selectedX = 0;
+		int selectedY = 0;
+		int selectedColor = 0;
+		boolean selectedSettlement = false;
+		if (selectedTile != null) {
+			selectedId = selectedTile.getTileData().getId();
+			selectedX = selectedTile.getX();
+			selectedY = selectedTile.getY();
+			selectedColor = colors != null ? colors[(int) selectedId] : 0;
+			selectedSettlement = selectedTile.getTileData().getSettlement() != null;
+		}
+		else if (selectedColumn >= 0) {
+			//the chunk may have been dropped since the click, and then the selection isn't drawn until it is generated again
+			Chunk chunk = chunkedWorld.getChunkAt(selectedColumn, selectedRow);
+			if (chunk != null) {
+				selectedId = (long) selectedRow * chunkedWorld.getWidth() + selectedColumn;
+				selectedX = selectedColumn;
+				selectedY = selectedRow;
+				selectedColor = chunk.getColor(selectedColumn, selectedRow);
+				selectedSettlement = chunk.hasSettlement(selectedColumn, selectedRow);
+			}
+		}
+		Snapshot next = new Snapshot(sequence, System.nanoTime(), camera.getX(), camera.getY(), camera.getZoom(), camera.getX(0f), camera.getY(0f),
+				camera.getZoom(0f), selectedId, selectedX, selectedY, selectedColor, selectedSettlement, getTickProgress(), colors, colorSource,
+				dirtyIds, lastDirtySequence, settlementIds);
+		if (dirtyIds.length > 0) {
+			lastDirtySequence = sequence;
+		}
+		return next;
+	}
+	
+	/**
+	 * Makes a snapshot of the game and hands it to the render thread, replacing the one it had
+	 */
+	public void publish() {
+		snapshot.set(snapshot());
+	}
+	
+	/**
+	 * Returns the newest published snapshot, which can be read from any thread
+	 * @return
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot.get();
+	}
+	
 	/**
 	 * Performs a game tick
 	 * 
@@ -101,12 +352,51 @@ public class Game {
 	/**
 	 * Called when the user clicks on the screen.
 	 * 
-	 * Recreates the map.
+	 * The click is handled at the start of the next update, on the simulation thread
 	 */
 	public void click(int x, int y, boolean isLeftClick) {
-		float cartX = (x - mainFrame.getDisplay().getWidth() / 2) / camera.getZoom() + camera.getX();
-		float cartY = (y - mainFrame.getDisplay().getHeight() / 2) / camera.getZoom() + camera.getY();
+		commands.add(() -> select(x, y));
+	}
+	
+	/**
+	 * Selects the tile at a point on the screen
+	 */
+	private void select(int x, int y) {
+		float cartX = (x - getViewWidth() / 2) / camera.getZoom() + camera.getX();
+		float cartY = (y - getViewHeight() / 2) / camera.getZoom() + camera.getY();
+		
+		int[] coordinates = getTileCoordinates(cartX, cartY);
+		int trueX = coordinates[0];
+		int trueY = coordinates[1];
+		
+		System.out.println(trueX + ", " + trueY);
+		
+		//Generates a new map
+//		tileMap = new TileMap(mapSize, mapSize);
+//		mainFrame.getDisplay().resetRenderer();
+		
+		if (chunkedWorld != null) {
+			//only a generated tile can be selected
+			boolean loaded = chunkedWorld.getChunkAt(trueX, trueY) != null;
+			selectedColumn = loaded ? trueX : -1;
+			selectedRow = loaded ? trueY : -1;
+			return;
+		}
+		selectedTile = tileMap == null ? null : tileMap.getTile(trueX, trueY);
+		if (selectedTile != null) {
+			selectedTile.click();
+		}
+		System.out.println(selectedTile);
 		
+	}
+	
+	/**
+	 * Returns the column and row of the tile containing a point on the map
+	 * @param cartX
+	 * @param cartY
+	 * @return {x, y}
+	 */
+	public static int[] getTileCoordinates(float cartX, float cartY) {
 		int trueX = 0;
 		int trueY = 0;
 		
@@ -149,26 +439,22 @@ public class Game {
 		
 		trueY = (int) (cartY / (Math.sqrt(3)));
 		
-		System.out.println(trueX + ", " + trueY);
-		
-		//Generates a new map
-//		tileMap = new TileMap(mapSize, mapSize);
-//		mainFrame.getDisplay().resetRenderer();
-		
-		selectedTile = tileMap.getTile(trueX, trueY);
-		if (selectedTile != null) {
-			selectedTile.click();
-		}
-		System.out.println(selectedTile);
-		
+		return new int[] {trueX, trueY};
 	}
 	
 	/**
 	 * Called when the user presses a button
 	 * 
-	 * Currently only changes the speed of ticks
+	 * The press is handled at the start of the next update, on the simulation thread
 	 */
 	public void press(char c) {
+		commands.add(() -> changeTicks(c));
+	}
+	
+	/**
+	 * Pauses or changes the speed of ticks
+	 */
+	private void changeTicks(char c) {
 		switch(c) {
 			case (' '):
 				ticking = !ticking;
@@ -203,6 +489,22 @@ public class Game {
 		return mainFrame;
 	}
 	
+	/**
+	 * Returns the width of the view in pixels: the window's, or the offscreen image's if there is no window
+	 * @return
+	 */
+	public int getViewWidth() {
+		return mainFrame != null ? mainFrame.getDisplay().getWidth() : viewWidth;
+	}
+	
+	/**
+	 * Returns the height of the view in pixels: the window's, or the offscreen image's if there is no window
+	 * @return
+	 */
+	public int getViewHeight() {
+		return mainFrame != null ? mainFrame.getDisplay().getHeight() : viewHeight;
+	}
+	
 	public Tile[][] getTiles() {
 		return tileMap.getTiles();
 	}
@@ -211,6 +513,10 @@ public class Game {
 		return camera;
 	}
 	
+	public Profiler getProfiler() {
+		return profiler;
+	}
+	
 	public Tile getSelectedTile() {
 		return selectedTile;
 	}
@@ -219,8 +525,24 @@ public class Game {
 		return (tickProgress / (float) updatesPerTick);
 	}
 	
+	/**
+	 * Returns the number of updates a tick takes at the current game speed
+	 * @return
+	 */
+	public int getUpdatesPerTick() {
+		return updatesPerTick;
+	}
+	
 	public TileMap getTileMap() {
 		return tileMap;
 	}
 	
+	/**
+	 * Returns the streamed world, or {@code null} if the whole map was generated up front
+	 * @return
+	 */
+	public ChunkedWorld getChunkedWorld() {
+		return chunkedWorld;
+	}
+	
 }
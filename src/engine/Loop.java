@@ -1,83 +1,166 @@
 package engine;
 
+import java.util.concurrent.locks.LockSupport;
+
+import profiling.Profiler;
+
 /**
- * This class contains the game loop that renders and updates the game
+ * This class contains the game loop that updates the game, and the render loop that draws it
+ *
+ * Updates happen on the thread that runs the loop, at a fixed rate measured with {@code System.nanoTime()}, and each one publishes a
+ * {@code Snapshot} of the game. Frames are drawn on a separate render thread at their own rate (or as often as possible) from the newest
+ * snapshot, with the camera part of the way between that update and the one before, so movement is smooth at any frame rate and a slow
+ * frame never holds up an update. Between updates and frames the threads are parked instead of spinning. How long every update and frame
+ * takes is recorded in the game's {@code Profiler}.
  */
 public class Loop implements Runnable {
 	private Game game;
 
-    private boolean running;
-    private final double updateRate = 1.0/30.0;
-    private final double frameRate = 1.0/30.0;
-    
-    private long nextStatTime;		//next time we will measure statistics
-    private int fps = 0;			//frames per second
-    private int ups = 0;			//updates per second
-    private long frameTime = 0;		//time it takes to render in nanoseconds
-    private long updateTime = 0;	//time it takes to update in nanoseconds
+    private volatile boolean running;
+    private static final int UPS = Integer.getInteger("itd.ups", 30); //updates per second, which can be set with -Ditd.ups=<ups>
+    private static final int FPS = Integer.getInteger("itd.fps", 60); //the most frames per second, which can be set with -Ditd.fps=<fps>, or 0 for no limit
+    private static final int MAX_UPDATES_PER_FRAME = 5; //when further behind than this, the missed updates are dropped instead of caught up on
+
+    private final long updateNanos; //time between updates in nanoseconds
+    private final long frameNanos; //time between frames in nanoseconds, or 0 to draw frames as often as possible
+
+    private Thread renderThread;
+    private long nextStatTime;				//next time we will measure statistics
+    private int fps = 0;					//frames per second
+    private volatile long numUpdates = 0;	//updates since the loop started, only changed by the game loop
+    private long statUpdates = 0;			//numUpdates when we last measured statistics
+    private long droppedNanos = 0;			//time that was not caught up on because updates fell too far behind
 
     public Loop(Game game) {
+    	this(game, UPS, FPS);
+    }
+
+    /**
+     * @param game
+     * @param ups updates per second
+     * @param fps the most frames per second, or 0 for no limit
+     */
+    public Loop(Game game, int ups, int fps) {
     	this.game = game;
+    	updateNanos = 1000000000L / Math.max(1, ups);
+    	frameNanos = fps <= 0 ? 0 : 1000000000L / fps;
     }
 
     /**
-     * Starts the game loop
+     * Starts the render thread, then runs the game loop on this thread
      */
     @Override
     public void run() {
         running = true;
-        double updateCounter, renderCounter; //counters that track the amount of time we have spent not updating/rendering to try to match the target rate
-        updateCounter = 0;
-        renderCounter = 0;
-        long currentTime; //the current time in milliseconds
-        long lastUpdate = System.currentTimeMillis(); //the time when we last updated
-        long lastRender = System.currentTimeMillis(); //the time when we last rendered
-        
-        nextStatTime = System.currentTimeMillis() + 1000; //the next time we will check statistics
-        
+        game.getProfiler().writeCsvOnExit();
+        renderThread = new Thread(this::renderLoop, "render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+
+        long lastTime = System.nanoTime(); //the time when we last checked
+        long lag = 0; //the time that has passed but hasn't been simulated yet
+
         while (running) {
-            currentTime = System.currentTimeMillis(); //reset the current time
-            double timeTaken = (currentTime - lastUpdate) / 1000d; //check how long it has been since we checked
-            
-            updateCounter += timeTaken;
-            lastUpdate = currentTime;
-            
-            renderCounter += timeTaken;
-            lastRender = currentTime;
-
-            //if we have taken enough time that we can now update (i.e. 1/60th of a second if the target ups is 60), then update
-            if (updateCounter >= updateRate) {
-            	//and continue to update in case we are behind
-                while(updateCounter > updateRate) {
-                    update();
-                    updateCounter -= updateRate;
-                }
+            long currentTime = System.nanoTime();
+            lag += currentTime - lastTime;
+            lastTime = currentTime;
+
+            //simulate every whole update that has passed, but only up to a limit, so that slow updates can't make us fall further and further behind
+            int updates = 0;
+            while (lag >= updateNanos && updates < MAX_UPDATES_PER_FRAME) {
+                update();
+                lag -= updateNanos;
+                updates++;
+            }
+            if (lag >= updateNanos) {
+            	droppedNanos += lag - lag % updateNanos;
+            	lag %= updateNanos;
             }
-            
-            //if we have taken enough time that we can now render (i.e. 1/60th of a second if the target fps is 60), then render
-            if (renderCounter >= frameRate) {
-            	render();
-            	renderCounter = 0;
+
+            //wait for the next update
+            long wait = lastTime + updateNanos - lag - System.nanoTime();
+            if (wait > 0) {
+            	LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Draws frames from the newest snapshot until the game loop stops
+     */
+    private void renderLoop() {
+        long nextRender = System.nanoTime(); //the time when we will next render
+        nextStatTime = nextRender + 1000000000L; //the next time we will check statistics
+
+        while (running) {
+            //render once it is time to, with the camera as far between the snapshot's update and the one before as we are past that update
+            long currentTime = System.nanoTime();
+            if (frameNanos == 0 || currentTime >= nextRender) {
+            	Snapshot snapshot = game.getSnapshot();
+            	float alpha = Math.min(1f, Math.max(0f, (float) (currentTime - snapshot.getTime()) / updateNanos));
+            	render(snapshot, alpha);
+            	nextRender += frameNanos;
+            	if (nextRender < currentTime) {
+            		nextRender = currentTime + frameNanos; //we are behind, so start counting again instead of drawing frames back to back
+            	}
             }
-            
-            if (System.currentTimeMillis() >= nextStatTime) {
-            	game.getMainFrame().getDisplay().giveStats(fps, ups, frameTime, updateTime);
+
+            if (currentTime >= nextStatTime) {
+            	long updates = numUpdates;
+            	game.getProfiler().summarize();
+            	if (game.getMainFrame() != null) {
+            		game.getMainFrame().getDisplay().giveStats(fps, (int) (updates - statUpdates));
+            	}
             	fps = 0;
-            	ups = 0;
-            	nextStatTime = nextStatTime + 1000;
+            	statUpdates = updates;
+            	nextStatTime = nextStatTime + 1000000000L;
+            }
+
+            //wait for the next frame
+            if (frameNanos != 0) {
+            	long wait = nextRender - System.nanoTime();
+            	if (wait > 0) {
+            		LockSupport.parkNanos(wait);
+            	}
             }
         }
     }
+
+    /**
+     * Stops the game loop after the current update, and the render loop after the current frame
+     */
+    public void stop() {
+    	running = false;
+    }
+
+    /**
+     * Updates the game, then publishes a snapshot of it for the render thread
+     */
     public void update() {
-    	ups++;
     	long start = System.nanoTime();
         game.update();
-        updateTime = System.nanoTime() - start;
+        game.publish();
+        game.getProfiler().record(Profiler.UPDATE, System.nanoTime() - start);
+        numUpdates++;
     }
-    public void render() {
+
+    /**
+     * Renders a frame
+     * @param snapshot the game data to draw
+     * @param alpha how far through the time between updates the frame is, from 0 to 1
+     */
+    public void render(Snapshot snapshot, float alpha) {
     	fps++;
     	long start = System.nanoTime();
-        game.getMainFrame().getDisplay().render();
-        frameTime = System.nanoTime() - start;
+        game.getMainFrame().getDisplay().render(snapshot, alpha);
+        game.getProfiler().recordFrame(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the total time, in nanoseconds, that was skipped instead of simulated because updates fell too far behind
+     * @return
+     */
+    public long getDroppedNanos() {
+    	return droppedNanos;
     }
 }
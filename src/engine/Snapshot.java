@@ -0,0 +1,155 @@
+package engine;
+
+/**
+ * This class contains everything the render thread needs from an update, copied so that it never changes after it is published
+ *
+ * The simulation thread makes a snapshot at the end of each update and publishes it with {@code Game.publish()}; the render thread
+ * draws whichever snapshot is newest when it starts a frame. The color array is shared rather than copied, but {@code WorldData} never
+ * changes a shared array: recoloring a tile after it was published recolors a copy, and the tiles recolored are listed in
+ * {@code getDirtyIds()} of the next snapshot.
+ */
+public final class Snapshot {
+
+	private final long sequence; //the number of the update this was made after
+	private final long time; //the System.nanoTime() of the update this was made after
+
+	private final float cameraX;
+	private final float cameraY;
+	private final float zoom;
+	//where the camera was before the update
+	private final float previousX;
+	private final float previousY;
+	private final float previousZoom;
+
+	//the selected tile, or an id of -1 if there is none; a long, as a streamed world can have more tiles than an int holds
+	private final long selectedId;
+	private final int selectedX;
+	private final int selectedY;
+	private final int selectedColor;
+	private final boolean selectedSettlement; //whether the selected tile has a settlement
+	private final float tickProgress;
+
+	private final int[] colors; //the packed color of every tile, or null for a streamed world
+	private final int[] colorSource; //the map mode's colors that colors is, or is a recolored copy of
+	private final int[] dirtyIds; //the tiles recolored since the last snapshot
+	private final long lastDirtySequence; //the sequence of the newest earlier snapshot that had dirty tiles, or -1
+	private final int[] settlementIds; //the tiles with settlements, or null for a streamed world
+
+	Snapshot(long sequence, long time, float cameraX, float cameraY, float zoom, float previousX, float previousY, float previousZoom,
+			long selectedId, int selectedX, int selectedY, int selectedColor, boolean selectedSettlement, float tickProgress, int[] colors,
+			int[] colorSource, int[] dirtyIds, long lastDirtySequence, int[] settlementIds) {
+		this.sequence = sequence;
+		this.time = time;
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.zoom = zoom;
+		this.previousX = previousX;
+		this.previousY = previousY;
+		this.previousZoom = previousZoom;
+		this.selectedId = selectedId;
+		this.selectedX = selectedX;
+		this.selectedY = selectedY;
+		this.selectedColor = selectedColor;
+		this.selectedSettlement = selectedSettlement;
+		this.tickProgress = tickProgress;
+		this.colors = colors;
+		this.colorSource = colorSource;
+		this.dirtyIds = dirtyIds;
+		this.lastDirtySequence = lastDirtySequence;
+		this.settlementIds = settlementIds;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the camera's x value part of the way from before the update to after it
+	 * @param alpha 0 for before the update, 1 for after it
+	 * @return
+	 */
+	public float getCameraX(float alpha) {
+		return previousX + (cameraX - previousX) * alpha;
+	}
+
+	/**
+	 * Returns the camera's y value part of the way from before the update to after it
+	 * @param alpha 0 for before the update, 1 for after it
+	 * @return
+	 */
+	public float getCameraY(float alpha) {
+		return previousY + (cameraY - previousY) * alpha;
+	}
+
+	/**
+	 * Returns the camera's zoom part of the way from before the update to after it
+	 * @param alpha 0 for before the update, 1 for after it
+	 * @return
+	 */
+	public float getZoom(float alpha) {
+		return previousZoom + (zoom - previousZoom) * alpha;
+	}
+
+	/**
+	 * Returns the id of the selected tile, or -1 if no tile is selected
+	 * @return
+	 */
+	public long getSelectedId() {
+		return selectedId;
+	}
+
+	public int getSelectedX() {
+		return selectedX;
+	}
+
+	public int getSelectedY() {
+		return selectedY;
+	}
+
+	public int getSelectedColor() {
+		return selectedColor;
+	}
+
+	public boolean hasSelectedSettlement() {
+		return selectedSettlement;
+	}
+
+	public float getTickProgress() {
+		return tickProgress;
+	}
+
+	public int[] getColors() {
+		return colors;
+	}
+
+	/**
+	 * Returns the array the colors were given to the map as, which stays the same while only single tiles are recolored, so it tells
+	 * whether a frame drawn from an earlier snapshot only needs the dirty tiles drawn again
+	 * @return
+	 */
+	public int[] getColorSource() {
+		return colorSource;
+	}
+
+	public int[] getDirtyIds() {
+		return dirtyIds;
+	}
+
+	/**
+	 * Returns {@code true} if a snapshot after {@code sequence} and before this one recolored tiles, which drawing this one alone would miss
+	 * @param sequence the sequence of the last snapshot that was drawn
+	 * @return
+	 */
+	public boolean hasMissedDirtyIds(long sequence) {
+		return lastDirtySequence > sequence;
+	}
+
+	public int[] getSettlementIds() {
+		return settlementIds;
+	}
+
+}
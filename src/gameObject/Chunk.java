@@ -0,0 +1,159 @@
+package gameObject;
+
+import java.util.BitSet;
+
+/**
+ * This class contains the model data of a square block of tiles in a {@code ChunkedWorld}
+ *
+ * Tiles are addressed by their coordinates in the whole world; a chunk's local id is {@code (y - y0) * width + (x - x0)}.
+ */
+public class Chunk {
+
+	private int chunkX;
+	private int chunkY;
+	private int x0; //the world coordinates of the chunk's first tile
+	private int y0;
+	private int width;
+	private int length;
+
+	private float[] height;
+	private float[] temp;
+	private float[] pop;
+	private float[] civ;
+	private BitSet isLand;
+	private BitSet settlements;
+
+	private volatile int[] color; //packed RGB color of each tile in the map mode {@code mapMode}, replaced rather than changed so the render thread can read it
+	private int mapMode;
+
+	Chunk(int chunkX, int chunkY, int x0, int y0, int width, int length) {
+		this.chunkX = chunkX;
+		this.chunkY = chunkY;
+		this.x0 = x0;
+		this.y0 = y0;
+		this.width = width;
+		this.length = length;
+		int numTiles = width * length;
+		height = new float[numTiles];
+		temp = new float[numTiles];
+		pop = new float[numTiles];
+		civ = new float[numTiles];
+		isLand = new BitSet(numTiles);
+		settlements = new BitSet(numTiles);
+		color = new int[numTiles];
+		mapMode = -1;
+	}
+
+	/**
+	 * Recolors every tile in this chunk for a map mode, if it isn't already colored for it
+	 * @param mapMode
+	 */
+	synchronized void recolor(int mapMode) {
+		if (mapMode == this.mapMode) {
+			return;
+		}
+		int[] newColor = new int[color.length];
+		for (int i = 0; i < newColor.length; i++) {
+			newColor[i] = Palette.getRGB(mapMode, height[i], temp[i], isLand.get(i), pop[i], civ[i]);
+		}
+		color = newColor;
+		this.mapMode = mapMode;
+	}
+
+	/**
+	 * Returns {@code true} if the tile at the given world coordinates is in this chunk
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public boolean contains(int x, int y) {
+		return x >= x0 && x < x0 + width && y >= y0 && y < y0 + length;
+	}
+
+	/**
+	 * Returns the local id of the tile at the given world coordinates
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public int index(int x, int y) {
+		return (y - y0) * width + (x - x0);
+	}
+
+	public int getColor(int x, int y) {
+		return color[index(x, y)];
+	}
+
+	/**
+	 * Returns the packed color of each tile, by local id; a recolor replaces the array rather than changing it
+	 * @return
+	 */
+	public int[] getColors() {
+		return color;
+	}
+
+	public boolean hasSettlement(int x, int y) {
+		return settlements.get(index(x, y));
+	}
+
+	/**
+	 * Returns roughly how much memory this chunk's data takes up
+	 * @return
+	 */
+	public long getSizeInBytes() {
+		return 5L * 4 * height.length + 2L * height.length / 8 + 64;
+	}
+
+	public int getChunkX() {
+		return chunkX;
+	}
+
+	public int getChunkY() {
+		return chunkY;
+	}
+
+	public int getX0() {
+		return x0;
+	}
+
+	public int getY0() {
+		return y0;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public int getMapMode() {
+		return mapMode;
+	}
+
+	float[] getHeights() {
+		return height;
+	}
+
+	float[] getTemps() {
+		return temp;
+	}
+
+	float[] getPops() {
+		return pop;
+	}
+
+	float[] getCivs() {
+		return civ;
+	}
+
+	BitSet getIsLand() {
+		return isLand;
+	}
+
+	BitSet getSettlements() {
+		return settlements;
+	}
+
+}
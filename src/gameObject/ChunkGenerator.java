@@ -0,0 +1,220 @@
+package gameObject;
+
+import java.util.BitSet;
+
+import gen.SeedStreams;
+import model.WorldData;
+
+/**
+ * This class generates the chunks of a {@code ChunkedWorld} one at a time, so that neighboring chunks line up without either one being loaded
+ *
+ * Every stage is a function of world coordinates and the seed: starting heights come from a hash of each tile, and plates are grown from
+ * sources placed on a grid of cells (each tile belongs to the plate of its nearest source, which is what the flood fill in
+ * {@code TileMap.splitTiles()} approximates). Smoothing and civ look at nearby tiles, so each chunk is generated together with a halo of
+ * {@code HALO} tiles on every side that aren't part of the chunk. Values near the edge of the halo are wrong, but the errors move inwards
+ * by at most two tiles per smoothing pass and per civ pass, and the halo is wide enough that they never reach the chunk itself. So the
+ * tiles on both sides of a seam are computed from the same data, and the seams are invisible.
+ */
+class ChunkGenerator {
+
+	public static final int MAX_SETTLEMENT_RADIUS = 8; //settlements can only be kept apart by this many steps, since chunks can't see further
+	private static final int REFERENCE_TILES = 200 * 200; //plates are as big as they are on a map of this size
+	private static final int PLATE_SEARCH_CELLS = 3; //the nearest plate source is always within this many cells
+
+	private int worldWidth;
+	private int worldLength;
+	private int chunkSize;
+	private long seed;
+	private int[] plateCellSizes;
+	private int numSmooths;
+	private int halo;
+
+	/**
+	 * @param worldWidth
+	 * @param worldLength
+	 * @param chunkSize must be even, so that every chunk starts on an even column
+	 * @param seed
+	 * @param numPlates the number of plates in each split, on a map of {@code REFERENCE_TILES} tiles
+	 * @param numSmooths
+	 */
+	ChunkGenerator(int worldWidth, int worldLength, int chunkSize, long seed, int[] numPlates, int numSmooths) {
+		this.worldWidth = worldWidth;
+		this.worldLength = worldLength;
+		this.chunkSize = chunkSize;
+		this.seed = seed;
+		this.numSmooths = numSmooths;
+		plateCellSizes = new int[numPlates.length];
+		for (int i = 0; i < numPlates.length; i++) {
+			plateCellSizes[i] = Math.max(2, (int) Math.round(Math.sqrt(REFERENCE_TILES / (double) numPlates[i])));
+		}
+		//2 per smoothing pass, 2 for civ and enough for settlements to see the civ around them; kept even so the halo starts on an even column
+		halo = 2 * numSmooths + 2 + MAX_SETTLEMENT_RADIUS;
+		halo += halo % 2;
+	}
+
+	/**
+	 * Generates the chunk at the given chunk coordinates
+	 * @param chunkX
+	 * @param chunkY
+	 * @return
+	 */
+	Chunk generate(int chunkX, int chunkY) {
+		int x0 = chunkX * chunkSize;
+		int y0 = chunkY * chunkSize;
+		int width = Math.min(chunkSize, worldWidth - x0);
+		int length = Math.min(chunkSize, worldLength - y0);
+
+		//the region is the chunk and its halo, clipped to the world
+		int regionX0 = Math.max(0, x0 - halo);
+		int regionY0 = Math.max(0, y0 - halo);
+		int regionWidth = Math.min(worldWidth, x0 + width + halo) - regionX0;
+		int regionLength = Math.min(worldLength, y0 + length + halo) - regionY0;
+		int numTiles = regionWidth * regionLength;
+		HexNeighborhood neighborhood = new HexNeighborhood(regionWidth, regionLength);
+
+		PlateLayer[] layers = new PlateLayer[plateCellSizes.length];
+		for (int i = 0; i < layers.length; i++) {
+			layers[i] = new PlateLayer(i, plateCellSizes[i], regionX0, regionY0, regionX0 + regionWidth, regionY0 + regionLength);
+		}
+
+		float[] height = new float[numTiles];
+		for (int ly = 0; ly < regionLength; ly++) {
+			for (int lx = 0; lx < regionWidth; lx++) {
+				int x = regionX0 + lx;
+				int y = regionY0 + ly;
+				float h = SeedStreams.hash(seed, SeedStreams.STAGE_TILE_HEIGHT, (long) y * worldWidth + x);
+				for (PlateLayer layer : layers) {
+					h = layer.getOffset(x, y) * 0.3f + h * 0.7f;
+				}
+				height[ly * regionWidth + lx] = h;
+			}
+		}
+
+		float[] back = new float[numTiles];
+		for (int k = 0; k < numSmooths; k++) {
+			SmoothTask.smoothRows(neighborhood, height, back, 0, regionLength);
+			float[] swap = height;
+			height = back;
+			back = swap;
+		}
+
+		float[] pop = new float[numTiles];
+		BitSet isLand = new BitSet(numTiles);
+		for (int i = 0; i < numTiles; i++) {
+			pop[i] = WorldData.calcTilePop(height[i]);
+			isLand.set(i, WorldData.calcTileIsLand(height[i]));
+		}
+		float[] civ = new float[numTiles];
+		int[] ring = new int[HexNeighborhood.diskSize(2)];
+		for (int i = 0; i < numTiles; i++) {
+			civ[i] = TileMap.calcTileCiv(neighborhood, isLand, pop, i, ring);
+		}
+
+		Chunk chunk = new Chunk(chunkX, chunkY, x0, y0, width, length);
+		int[] disk = new int[HexNeighborhood.diskSize(MAX_SETTLEMENT_RADIUS)];
+		for (int y = y0; y < y0 + length; y++) {
+			for (int x = x0; x < x0 + width; x++) {
+				int i = (y - regionY0) * regionWidth + (x - regionX0);
+				int c = chunk.index(x, y);
+				chunk.getHeights()[c] = height[i];
+				chunk.getTemps()[c] = WorldData.calcTileTemp(height[i], y);
+				chunk.getPops()[c] = pop[i];
+				chunk.getCivs()[c] = civ[i];
+				chunk.getIsLand().set(c, isLand.get(i));
+				chunk.getSettlements().set(c, isSettlement(neighborhood, civ, i, regionX0, regionWidth, disk));
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Returns {@code true} if a tile should have a settlement
+	 *
+	 * A chunk can't know which settlements a greedy placement over the whole world would have made first, so instead a tile gets a settlement
+	 * if its civ is at least 0.1 and no tile within its settlement radius (capped at {@code MAX_SETTLEMENT_RADIUS}) comes before it in
+	 * the order {@code TileMap.calcSettlement()} uses.
+	 */
+	private boolean isSettlement(HexNeighborhood neighborhood, float[] civ, int id, int regionX0, int regionWidth, int[] disk) {
+		float c = civ[id];
+		if (c < 0.1f) {
+			return false;
+		}
+		int num = neighborhood.disk(id, TileMap.getSettlementRadius(c, MAX_SETTLEMENT_RADIUS), disk);
+		for (int i = 0; i < num; i++) {
+			int other = disk[i];
+			if (civ[other] > c) {
+				return false;
+			}
+			//ties go to the tile in the earlier column, then the earlier row
+			int column = other % regionWidth;
+			if (civ[other] == c && (column < id % regionWidth || (column == id % regionWidth && other < id))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This class contains the plate sources of one split near a region, placed one per cell of a grid
+	 */
+	private class PlateLayer {
+
+		private int cellSize;
+		private int cellX0; //the first cell column and row that could hold the nearest source of a tile in the region
+		private int cellY0;
+		private int cellsWide;
+		private int cellsLong;
+		private int[] sourceX;
+		private int[] sourceY;
+		private float[] offset; //the random number of each cell's plate, which modifies the height of the plate's tiles
+
+		PlateLayer(int layer, int cellSize, int x0, int y0, int x1, int y1) {
+			this.cellSize = cellSize;
+			cellX0 = Math.max(0, x0 / cellSize - PLATE_SEARCH_CELLS);
+			cellY0 = Math.max(0, y0 / cellSize - PLATE_SEARCH_CELLS);
+			int cellX1 = Math.min((worldWidth - 1) / cellSize, (x1 - 1) / cellSize + PLATE_SEARCH_CELLS);
+			int cellY1 = Math.min((worldLength - 1) / cellSize, (y1 - 1) / cellSize + PLATE_SEARCH_CELLS);
+			cellsWide = cellX1 - cellX0 + 1;
+			cellsLong = cellY1 - cellY0 + 1;
+			sourceX = new int[cellsWide * cellsLong];
+			sourceY = new int[cellsWide * cellsLong];
+			offset = new float[cellsWide * cellsLong];
+			for (int j = 0; j < cellsLong; j++) {
+				for (int i = 0; i < cellsWide; i++) {
+					long key = (((long) layer << 20 | (cellY0 + j)) << 20) | (cellX0 + i);
+					int k = j * cellsWide + i;
+					int x = (cellX0 + i) * cellSize + (int) (SeedStreams.hash(seed, SeedStreams.STAGE_PLATE_SOURCE, 2 * key) * cellSize);
+					int y = (cellY0 + j) * cellSize + (int) (SeedStreams.hash(seed, SeedStreams.STAGE_PLATE_SOURCE, 2 * key + 1) * cellSize);
+					sourceX[k] = Math.min(x, worldWidth - 1);
+					sourceY[k] = Math.min(y, worldLength - 1);
+					offset[k] = SeedStreams.hash(seed, SeedStreams.STAGE_PLATE_OFFSET, key);
+				}
+			}
+		}
+
+		/**
+		 * Returns the random number of the plate the given tile belongs to
+		 */
+		float getOffset(int x, int y) {
+			int minI = Math.max(0, x / cellSize - PLATE_SEARCH_CELLS - cellX0);
+			int maxI = Math.min(cellsWide - 1, x / cellSize + PLATE_SEARCH_CELLS - cellX0);
+			int minJ = Math.max(0, y / cellSize - PLATE_SEARCH_CELLS - cellY0);
+			int maxJ = Math.min(cellsLong - 1, y / cellSize + PLATE_SEARCH_CELLS - cellY0);
+			int best = -1;
+			int bestDistance = Integer.MAX_VALUE;
+			for (int j = minJ; j <= maxJ; j++) {
+				for (int i = minI; i <= maxI; i++) {
+					int k = j * cellsWide + i;
+					int distance = HexNeighborhood.distance(x, y, sourceX[k], sourceY[k]);
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						best = k;
+					}
+				}
+			}
+			return offset[best];
+		}
+
+	}
+
+}
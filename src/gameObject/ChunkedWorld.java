@@ -0,0 +1,296 @@
+package gameObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import gen.WorldGenerator;
+import profiling.RecolorEvent;
+
+/**
+ * This class contains a world that is too big to generate up front, split into square {@code Chunk}s that are generated as the camera approaches them
+ *
+ * Chunks are generated on background threads and kept in least-recently-used order; when the loaded chunks take up more than the memory
+ * budget, the chunks that have gone longest without being seen are dropped, and are regenerated (identically, from the seed) if they're needed again.
+ */
+public class ChunkedWorld {
+
+	public static final int CHUNK_SIZE = 64; //the width and length of a chunk, in tiles
+	private static final int PREFETCH_CHUNKS = 1; //chunks this far outside the visible area are generated before they come into view
+
+	private static final float SQRT_3 = (float) Math.sqrt(3.0);
+
+	private int width;
+	private int length;
+	private long seed;
+	private ChunkGenerator generator;
+	private ExecutorService executor;
+
+	private LinkedHashMap<Long, Chunk> chunks; //loaded chunks, in least-recently-used order
+	private Map<Long, Future<?>> pending; //chunks being generated
+	private long memoryBudget; //the most bytes the loaded chunks may take up
+	private long memoryUsed;
+
+	//the range of chunks that were visible at the last update, which are never evicted
+	private int visibleMinX, visibleMaxX, visibleMinY, visibleMaxY;
+
+	private volatile int mapMode;
+
+	/**
+	 * @param width the width of the world, in tiles
+	 * @param length the length of the world, in tiles
+	 * @param params the generator whose seed, splits and smooths are used for each chunk
+	 * @param memoryBudget the most bytes the loaded chunks may take up
+	 */
+	public ChunkedWorld(int width, int length, WorldGenerator params, long memoryBudget) {
+		this.width = width;
+		this.length = length;
+		this.seed = params.getSeed();
+		this.memoryBudget = memoryBudget;
+		int[] numPlates = {params.getNumSplitsAlpha(), params.getNumSplitsBeta(), params.getNumSplitsGamma()};
+		generator = new ChunkGenerator(width, length, CHUNK_SIZE, seed, numPlates, params.getNumSmooths());
+		chunks = new LinkedHashMap<>(64, 0.75f, true);
+		pending = new ConcurrentHashMap<>();
+		mapMode = 0;
+		visibleMaxX = -1;
+		visibleMaxY = -1;
+
+		int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		executor = Executors.newFixedThreadPool(numThreads, (Runnable r) -> {
+			Thread thread = new Thread(r, "chunk-generator");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/**
+	 * Requests the chunks around the visible area, drops requests for chunks that are no longer near it, and evicts chunks over the memory budget
+	 * @param minX the minimum visible x value
+	 * @param maxX the maximum visible x value
+	 * @param minY the minimum visible y value
+	 * @param maxY the maximum visible y value
+	 */
+	public void update(float minX, float maxX, float minY, float maxY) {
+		int minChunkX = clamp(getColumn(minX - 2f) / CHUNK_SIZE, getNumChunksX());
+		int maxChunkX = clamp(getColumn(maxX) / CHUNK_SIZE, getNumChunksX());
+		int minChunkY = clamp(getRow(minY) / CHUNK_SIZE, getNumChunksY());
+		int maxChunkY = clamp(getRow(maxY) / CHUNK_SIZE, getNumChunksY());
+
+		int wantMinX = Math.max(0, minChunkX - PREFETCH_CHUNKS);
+		int wantMaxX = Math.min(getNumChunksX() - 1, maxChunkX + PREFETCH_CHUNKS);
+		int wantMinY = Math.max(0, minChunkY - PREFETCH_CHUNKS);
+		int wantMaxY = Math.min(getNumChunksY() - 1, maxChunkY + PREFETCH_CHUNKS);
+
+		//cancel generation of chunks that have moved out of range
+		for (Iterator<Map.Entry<Long, Future<?>>> it = pending.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Long, Future<?>> entry = it.next();
+			int cx = getChunkX(entry.getKey());
+			int cy = getChunkY(entry.getKey());
+			if (cx < wantMinX || cx > wantMaxX || cy < wantMinY || cy > wantMaxY) {
+				entry.getValue().cancel(false);
+				it.remove();
+			}
+		}
+
+		//request missing chunks, nearest to the center of the view first
+		float centerX = (minChunkX + maxChunkX) / 2f;
+		float centerY = (minChunkY + maxChunkY) / 2f;
+		List<long[]> missing = new ArrayList<>();
+		synchronized (this) {
+			visibleMinX = minChunkX;
+			visibleMaxX = maxChunkX;
+			visibleMinY = minChunkY;
+			visibleMaxY = maxChunkY;
+			for (int cy = wantMinY; cy <= wantMaxY; cy++) {
+				for (int cx = wantMinX; cx <= wantMaxX; cx++) {
+					long key = getKey(cx, cy);
+					if (chunks.get(key) == null && !pending.containsKey(key)) { //get() also marks loaded chunks as recently used
+						float dx = cx - centerX;
+						float dy = cy - centerY;
+						missing.add(new long[] {key, (long) (1000 * (dx * dx + dy * dy))});
+					}
+				}
+			}
+			evict();
+		}
+		missing.sort((long[] a, long[] b) -> Long.compare(a[1], b[1]));
+		for (long[] entry : missing) {
+			long key = entry[0];
+			FutureTask<Void> task = new FutureTask<>(() -> {
+				Chunk chunk = generator.generate(getChunkX(key), getChunkY(key));
+				chunk.recolor(mapMode);
+				store(key, chunk);
+			}, null);
+			pending.put(key, task); //added before it runs, so store() can tell it is still wanted
+			executor.execute(task);
+		}
+	}
+
+	/**
+	 * Adds a newly generated chunk, unless it has stopped being wanted while it was generated
+	 */
+	private synchronized void store(long key, Chunk chunk) {
+		if (pending.remove(key) == null) {
+			return;
+		}
+		chunks.put(key, chunk);
+		memoryUsed += chunk.getSizeInBytes();
+		if (chunk.getMapMode() != mapMode) {
+			chunk.recolor(mapMode);
+		}
+		evict();
+	}
+
+	/**
+	 * Removes least recently used chunks until the loaded chunks fit in the memory budget, but never removes a visible chunk
+	 */
+	private void evict() {
+		for (Iterator<Chunk> it = chunks.values().iterator(); it.hasNext() && memoryUsed > memoryBudget;) {
+			Chunk chunk = it.next();
+			if (chunk.getChunkX() >= visibleMinX && chunk.getChunkX() <= visibleMaxX && chunk.getChunkY() >= visibleMinY && chunk.getChunkY() <= visibleMaxY) {
+				continue;
+			}
+			memoryUsed -= chunk.getSizeInBytes();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Returns the loaded chunk at the given chunk coordinates, or {@code null} if it isn't loaded
+	 * @param chunkX
+	 * @param chunkY
+	 * @return
+	 */
+	public synchronized Chunk getChunk(int chunkX, int chunkY) {
+		return chunks.get(getKey(chunkX, chunkY));
+	}
+
+	/**
+	 * Returns the loaded chunk containing the tile at the given coordinates, or {@code null} if it isn't loaded
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public Chunk getChunkAt(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= length) {
+			return null;
+		}
+		return getChunk(x / CHUNK_SIZE, y / CHUNK_SIZE);
+	}
+
+	/**
+	 * Recolors every loaded chunk for a map mode; chunks loaded later are colored for it when they're stored
+	 * @param mapMode
+	 */
+	public void updateMapMode(int mapMode) {
+		if (mapMode < 0 || mapMode >= ColorCache.NUM_MAP_MODES || mapMode == this.mapMode) {
+			return;
+		}
+		this.mapMode = mapMode;
+		List<Chunk> loaded;
+		synchronized (this) {
+			loaded = new ArrayList<>(chunks.values());
+		}
+		RecolorEvent event = new RecolorEvent();
+		event.begin();
+		loaded.parallelStream().forEach((Chunk c) -> c.recolor(mapMode));
+		event.end();
+		if (event.shouldCommit()) {
+			event.mapMode = mapMode;
+			for (Chunk c : loaded) {
+				event.tiles += (long) c.getWidth() * c.getLength();
+			}
+			event.commit();
+		}
+	}
+
+	/**
+	 * Stops generating chunks, when the game exits or the world is replaced
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Returns the column of the tile whose center is nearest to the given x value
+	 */
+	private static int getColumn(float x) {
+		return (int) Math.floor((x - 1f) / 1.5f);
+	}
+
+	/**
+	 * Returns the row of the tile whose center is nearest to the given y value
+	 */
+	private static int getRow(float y) {
+		return (int) Math.floor(y / SQRT_3);
+	}
+
+	private static int clamp(int chunk, int numChunks) {
+		return Math.max(0, Math.min(numChunks - 1, chunk));
+	}
+
+	private static long getKey(int chunkX, int chunkY) {
+		return ((long) chunkY << 32) | (chunkX & 0xffffffffL);
+	}
+
+	private static int getChunkX(long key) {
+		return (int) key;
+	}
+
+	private static int getChunkY(long key) {
+		return (int) (key >> 32);
+	}
+
+	public int getNumChunksX() {
+		return (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	public int getNumChunksY() {
+		return (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of tiles in the whole world, which can be more than an int holds as the world is never loaded all at once
+	 * @return
+	 */
+	public long getNumTiles() {
+		return (long) width * length;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getMapMode() {
+		return mapMode;
+	}
+
+	public synchronized int getNumLoaded() {
+		return chunks.size();
+	}
+
+	public int getNumPending() {
+		return pending.size();
+	}
+
+	public synchronized long getMemoryUsed() {
+		return memoryUsed;
+	}
+
+}
@@ -0,0 +1,140 @@
+package gameObject;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.WorldData;
+import profiling.RecolorEvent;
+
+/**
+ * This class keeps the colors of every tile of a map in each map mode, so switching to a map mode that has been seen before only swaps arrays
+ *
+ * A map mode's colors are computed on a background thread the first time they're asked for, and again only after one of the fields that
+ * map mode shows has changed (see {@code Palette.getFields()}). Until they are ready, {@code get()} returns {@code null}, so the caller
+ * can keep showing the colors it has. Finished colors are only picked up by {@code get()}, on the caller's thread.
+ *
+ * The arrays returned are the cache's own and must not be changed; {@code WorldData.setColors()} copies one before a tile of it is recolored.
+ */
+public class ColorCache {
+
+	public static final int NUM_MAP_MODES = 5;
+
+	//one thread colors for every map, as colors are only computed when the map mode changes
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor((Runnable r) -> {
+		Thread thread = new Thread(r, "recolor");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	private WorldData world;
+
+	private int[][] colors; //the colors of each map mode, or null if they haven't been computed
+	private int[] versions; //the version of the fields each map mode's colors were computed from
+	private Future<int[]>[] pending; //the colors being computed for each map mode, or null
+	private int[] pendingVersions;
+
+	public ColorCache(WorldData world) {
+		this.world = world;
+		colors = new int[NUM_MAP_MODES][];
+		versions = new int[NUM_MAP_MODES];
+		@SuppressWarnings({"unchecked", "rawtypes"}) //arrays of a generic type can only be made raw
+		Future<int[]>[] futures = new Future[NUM_MAP_MODES];
+		pending = futures;
+		pendingVersions = new int[NUM_MAP_MODES];
+	}
+
+	/**
+	 * Returns the up to date colors of a map mode, or {@code null} if they're still being computed
+	 *
+	 * If they haven't been computed since their fields last changed, they start being computed in the background.
+	 * @param mapMode
+	 * @return
+	 */
+	public int[] get(int mapMode) {
+		int version = world.getVersion(Palette.getFields(mapMode));
+		collect(mapMode);
+		if (colors[mapMode] != null && versions[mapMode] == version) {
+			return colors[mapMode];
+		}
+		if (pending[mapMode] == null || pendingVersions[mapMode] != version) {
+			if (pending[mapMode] != null) {
+				pending[mapMode].cancel(false); //started from fields that have changed since
+			}
+			pendingVersions[mapMode] = version;
+			pending[mapMode] = EXECUTOR.submit(() -> color(world, mapMode));
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the up to date colors of a map mode, computing them on this thread if they aren't ready
+	 * @param mapMode
+	 * @return
+	 */
+	public int[] getNow(int mapMode) {
+		int version = world.getVersion(Palette.getFields(mapMode));
+		collect(mapMode);
+		if (colors[mapMode] == null || versions[mapMode] != version) {
+			if (pending[mapMode] != null) {
+				pending[mapMode].cancel(false);
+				pending[mapMode] = null;
+			}
+			colors[mapMode] = color(world, mapMode);
+			versions[mapMode] = version;
+		}
+		return colors[mapMode];
+	}
+
+	/**
+	 * Stores the colors of a map mode if they have finished being computed
+	 */
+	private void collect(int mapMode) {
+		Future<int[]> future = pending[mapMode];
+		if (future == null || !future.isDone()) {
+			return;
+		}
+		pending[mapMode] = null;
+		if (future.isCancelled()) {
+			return;
+		}
+		try {
+			colors[mapMode] = future.get();
+			versions[mapMode] = pendingVersions[mapMode];
+		}
+		catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Could not color map mode " + mapMode, e);
+		}
+	}
+
+	/**
+	 * Returns the packed color of every tile of a map in a map mode, in one pass over the map's arrays
+	 * @param world
+	 * @param mapMode
+	 * @return
+	 */
+	public static int[] color(WorldData world, int mapMode) {
+		RecolorEvent event = new RecolorEvent();
+		event.begin();
+		float[] height = world.getHeights();
+		float[] temp = world.getTemps();
+		float[] pop = world.getPops();
+		float[] civ = world.getCivs();
+		BitSet isLand = world.getIsLand();
+		int[] color = new int[world.getNumTiles()];
+		for (int id = 0; id < color.length; id++) {
+			color[id] = Palette.getRGB(mapMode, height[id], temp[id], isLand.get(id), pop[id], civ[id]);
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.mapMode = mapMode;
+			event.tiles = color.length;
+			event.commit();
+		}
+		return color;
+	}
+
+}
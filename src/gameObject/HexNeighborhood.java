@@ -0,0 +1,225 @@
+package gameObject;
+
+import java.util.function.IntConsumer;
+
+/**
+ * This class finds the tiles within (or exactly at) a number of steps from a tile, clipped to the edges of the map
+ *
+ * Because odd columns are shifted down half a tile, the tiles within k steps of a tile always cover the same range of rows in each column
+ * relative to it, depending only on k and whether the tile's column is odd. These ranges (spans) are kept in tables, so a query is
+ * just a loop over the columns of the span table, and no sets are built.
+ */
+public class HexNeighborhood {
+
+	private static final int CACHED_RADII = 17; //span tables for radii below this are built once and shared
+
+	//SPANS[k][parity] holds the lowest and highest row offset for each column offset from -k to k
+	private static final int[][][] SPANS = new int[CACHED_RADII][][];
+
+	static {
+		for (int k = 0; k < CACHED_RADII; k++) {
+			SPANS[k] = new int[][] {createSpans(k, 0), createSpans(k, 1)};
+		}
+	}
+
+	private int width;
+	private int length;
+
+	public HexNeighborhood(int width, int length) {
+		this.width = width;
+		this.length = length;
+	}
+
+	/**
+	 * Creates the span table for a radius and column parity
+	 *
+	 * In cube coordinates, the tiles within k steps are those with a column offset dx and cube row offset dr where
+	 * {@code max(-k, -k - dx) <= dr <= min(k, k - dx)}. A tile's row is its cube row plus half its column, rounded down.
+	 * @param k
+	 * @param parity 0 for even columns, 1 for odd columns
+	 * @return {dyMin, dyMax} for each dx from -k to k
+	 */
+	private static int[] createSpans(int k, int parity) {
+		int[] spans = new int[2 * (2 * k + 1)];
+		for (int dx = -k; dx <= k; dx++) {
+			int shift = (parity + dx) >> 1;
+			spans[2 * (dx + k)] = Math.max(-k, -k - dx) + shift;
+			spans[2 * (dx + k) + 1] = Math.min(k, k - dx) + shift;
+		}
+		return spans;
+	}
+
+	/**
+	 * Returns the span table for a radius and column parity, see {@code createSpans()}
+	 * @param k
+	 * @param parity
+	 * @return
+	 */
+	public static int[] getSpans(int k, int parity) {
+		if (k < CACHED_RADII) {
+			return SPANS[k][parity];
+		}
+		return createSpans(k, parity);
+	}
+
+	/**
+	 * Returns the number of steps between two tiles, ignoring the edges of the map
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @return
+	 */
+	public static int distance(int x1, int y1, int x2, int y2) {
+		int dq = x2 - x1;
+		int dr = (y2 - (x2 >> 1)) - (y1 - (x1 >> 1)); //the difference in cube rows
+		return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+	}
+
+	/**
+	 * Returns the most tiles that can be within k steps of a tile
+	 * @param k
+	 * @return
+	 */
+	public static int diskSize(int k) {
+		return 3 * k * (k + 1) + 1;
+	}
+
+	/**
+	 * Returns the most tiles that can be exactly k steps from a tile
+	 * @param k
+	 * @return
+	 */
+	public static int ringSize(int k) {
+		return k == 0 ? 1 : 6 * k;
+	}
+
+	/**
+	 * Writes the ids of every tile within k steps of a tile (including itself) into {@code out}, column by column
+	 * @param id
+	 * @param k
+	 * @param out must have room for at least {@code diskSize(k)} ids
+	 * @return the number of ids written
+	 */
+	public int disk(int id, int k, int[] out) {
+		int cx = id % width;
+		int cy = id / width;
+		int[] spans = getSpans(k, cx & 1);
+		int num = 0;
+		int minDx = Math.max(-k, -cx);
+		int maxDx = Math.min(k, width - 1 - cx);
+		for (int dx = minDx; dx <= maxDx; dx++) {
+			int minY = Math.max(0, cy + spans[2 * (dx + k)]);
+			int maxY = Math.min(length - 1, cy + spans[2 * (dx + k) + 1]);
+			int x = cx + dx;
+			for (int y = minY; y <= maxY; y++) {
+				out[num] = y * width + x;
+				num++;
+			}
+		}
+		return num;
+	}
+
+	/**
+	 * Writes the ids of every tile exactly k steps from a tile into {@code out}, column by column
+	 * @param id
+	 * @param k
+	 * @param out must have room for at least {@code ringSize(k)} ids
+	 * @return the number of ids written
+	 */
+	public int ring(int id, int k, int[] out) {
+		int cx = id % width;
+		int cy = id / width;
+		int[] spans = getSpans(k, cx & 1);
+		int num = 0;
+		int minDx = Math.max(-k, -cx);
+		int maxDx = Math.min(k, width - 1 - cx);
+		for (int dx = minDx; dx <= maxDx; dx++) {
+			int x = cx + dx;
+			int top = cy + spans[2 * (dx + k)];
+			int bottom = cy + spans[2 * (dx + k) + 1];
+			if (dx == -k || dx == k) {
+				//the whole column is on the ring
+				for (int y = Math.max(0, top); y <= Math.min(length - 1, bottom); y++) {
+					out[num] = y * width + x;
+					num++;
+				}
+			}
+			else {
+				//only the ends of the column are on the ring
+				if (top >= 0 && top < length) {
+					out[num] = top * width + x;
+					num++;
+				}
+				if (bottom != top && bottom >= 0 && bottom < length) {
+					out[num] = bottom * width + x;
+					num++;
+				}
+			}
+		}
+		return num;
+	}
+
+	/**
+	 * Calls {@code visitor} with the id of every tile within k steps of a tile (including itself), column by column
+	 * @param id
+	 * @param k
+	 * @param visitor
+	 */
+	public void forEachInDisk(int id, int k, IntConsumer visitor) {
+		int cx = id % width;
+		int cy = id / width;
+		int[] spans = getSpans(k, cx & 1);
+		int minDx = Math.max(-k, -cx);
+		int maxDx = Math.min(k, width - 1 - cx);
+		for (int dx = minDx; dx <= maxDx; dx++) {
+			int minY = Math.max(0, cy + spans[2 * (dx + k)]);
+			int maxY = Math.min(length - 1, cy + spans[2 * (dx + k) + 1]);
+			int x = cx + dx;
+			for (int y = minY; y <= maxY; y++) {
+				visitor.accept(y * width + x);
+			}
+		}
+	}
+
+	/**
+	 * Calls {@code visitor} with the id of every tile exactly k steps from a tile, column by column
+	 * @param id
+	 * @param k
+	 * @param visitor
+	 */
+	public void forEachInRing(int id, int k, IntConsumer visitor) {
+		int cx = id % width;
+		int cy = id / width;
+		int[] spans = getSpans(k, cx & 1);
+		int minDx = Math.max(-k, -cx);
+		int maxDx = Math.min(k, width - 1 - cx);
+		for (int dx = minDx; dx <= maxDx; dx++) {
+			int x = cx + dx;
+			int top = cy + spans[2 * (dx + k)];
+			int bottom = cy + spans[2 * (dx + k) + 1];
+			if (dx == -k || dx == k) {
+				for (int y = Math.max(0, top); y <= Math.min(length - 1, bottom); y++) {
+					visitor.accept(y * width + x);
+				}
+			}
+			else {
+				if (top >= 0 && top < length) {
+					visitor.accept(top * width + x);
+				}
+				if (bottom != top && bottom >= 0 && bottom < length) {
+					visitor.accept(bottom * width + x);
+				}
+			}
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+}
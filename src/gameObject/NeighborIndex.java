@@ -0,0 +1,118 @@
+package gameObject;
+
+import java.util.function.IntConsumer;
+
+/**
+ * This class contains the adjacency of every tile in a map, built once in compressed sparse row form
+ *
+ * The neighbors of the tile with id {@code i} are {@code neighbors[offsets[i]]} up to (but not including) {@code neighbors[offsets[i + 1]]}.
+ * Tile ids are the same as in {@code WorldData}, i.e. {@code y * width + x}.
+ */
+public class NeighborIndex {
+
+	public static final int MAX_NEIGHBORS = 6;
+
+	private int width;
+	private int length;
+
+	private int[] offsets;
+	private int[] neighbors;
+
+	public NeighborIndex(int width, int length) {
+		this.width = width;
+		this.length = length;
+
+		int numTiles = width * length;
+		offsets = new int[numTiles + 1];
+		int[] buffer = new int[numTiles * MAX_NEIGHBORS];
+		int count = 0;
+		for (int id = 0; id < numTiles; id++) {
+			offsets[id] = count;
+			int x = id % width;
+			int y = id / width;
+			//odd columns are shifted down half a tile, so their side neighbors are one row lower
+			int mod = x % 2;
+			count = addNeighbor(buffer, count, x, y-1);
+			count = addNeighbor(buffer, count, x, y+1);
+			count = addNeighbor(buffer, count, x-1, y-1+mod);
+			count = addNeighbor(buffer, count, x-1, y+mod);
+			count = addNeighbor(buffer, count, x+1, y-1+mod);
+			count = addNeighbor(buffer, count, x+1, y+mod);
+		}
+		offsets[numTiles] = count;
+
+		neighbors = new int[count];
+		System.arraycopy(buffer, 0, neighbors, 0, count);
+	}
+
+	/**
+	 * Adds an individual neighbor, if it exists
+	 * @return the new number of entries in {@code buffer}
+	 */
+	private int addNeighbor(int[] buffer, int count, int x, int y) {
+		if (x >= 0 && x < width && y >= 0 && y < length) {
+			buffer[count] = y * width + x;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the position in {@code getNeighbors()} of the first neighbor of a tile
+	 * @param id
+	 * @return
+	 */
+	public int start(int id) {
+		return offsets[id];
+	}
+
+	/**
+	 * Returns the position in {@code getNeighbors()} after the last neighbor of a tile
+	 * @param id
+	 * @return
+	 */
+	public int end(int id) {
+		return offsets[id + 1];
+	}
+
+	/**
+	 * Returns the id of the neighbor at a position between {@code start(id)} and {@code end(id)}
+	 * @param k
+	 * @return
+	 */
+	public int get(int k) {
+		return neighbors[k];
+	}
+
+	public int count(int id) {
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * Calls {@code action} with the id of each neighbor of a tile
+	 * @param id
+	 * @param action
+	 */
+	public void forEach(int id, IntConsumer action) {
+		for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+			action.accept(neighbors[k]);
+		}
+	}
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	public int[] getNeighbors() {
+		return neighbors;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+}
@@ -0,0 +1,208 @@
+package gameObject;
+
+import java.awt.Color;
+
+import model.WorldData;
+
+/**
+ * This class contains the colors of the map modes as tables of packed ARGB ints, so coloring a tile is a table lookup rather than a calculation and a new {@code Color}
+ *
+ * The rainbow used by most map modes is sampled {@code RESOLUTION} times per unit. Every color the map modes can give also has a single
+ * shared {@code Color} object, which {@code getColor()} returns, so code that draws with {@code Graphics} doesn't allocate either.
+ */
+public final class Palette {
+
+	public static final int RESOLUTION = 1024; //the number of entries per unit of the rainbow
+	private static final float RAIN_MAX = 1.2f; //the end of the rainbow
+	//numbers this far past either end still round to a color, and further than that the rainbow has no color, and tiles are white
+	private static final float RAIN_MARGIN = 0.2f / 255;
+
+	public static final int WHITE = 0xffffffff;
+	public static final int WATER = Tile.WATER_COLOR.getRGB();
+	public static final int DESERT = Tile.DESERT_COLOR.getRGB();
+	public static final int MEDIUM = Tile.MEDIUM_COLOR.getRGB();
+	public static final int GOOD = Tile.GOOD_COLOR.getRGB();
+
+	private static final int[] RAIN = new int[(int) (RAIN_MAX * RESOLUTION) + 1];
+
+	//the shared Colors, in an open-addressed hash table keyed by their packed ints
+	private static final int[] KEYS;
+	private static final Color[] COLORS;
+
+	static {
+		for (int i = 0; i < RAIN.length; i++) {
+			RAIN[i] = calcRain(i / (float) RESOLUTION);
+		}
+		int[] fixed = {WHITE, 0xff000000, WATER, DESERT, MEDIUM, GOOD};
+		int size = Integer.highestOneBit((RAIN.length + fixed.length) * 2) * 2;
+		KEYS = new int[size];
+		COLORS = new Color[size];
+		for (int rgb : RAIN) {
+			addColor(rgb);
+		}
+		for (int rgb : fixed) {
+			addColor(rgb);
+		}
+	}
+
+	private Palette() {
+
+	}
+
+	/**
+	 * Returns the packed color a tile with the given data has in a map mode, or 0 if the map mode doesn't exist
+	 * @param mapMode
+	 * @param height
+	 * @param temp
+	 * @param isLand
+	 * @param pop
+	 * @param civ
+	 * @return
+	 */
+	public static int getRGB(int mapMode, float height, float temp, boolean isLand, float pop, float civ) {
+		switch (mapMode) {
+		case 0:
+			return rain(height);
+		case 1:
+			return rain(temp);
+		case 2:
+			if (!isLand) {
+				return WATER;
+			}
+			else if (pop < (1f / 3f)) {
+				return DESERT;
+			}
+			else if (pop < (2f / 3f)) {
+				return MEDIUM;
+			}
+			else {
+				return GOOD;
+			}
+		case 3:
+			return rain(pop);
+		case 4:
+			return rain(civ);
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the fields of {@code WorldData} that the colors of a map mode are made from, or 0 if the map mode doesn't exist
+	 * @param mapMode
+	 * @return a combination of {@code WorldData.HEIGHT}, {@code TEMP}, {@code IS_LAND}, {@code POP} and {@code CIV}
+	 */
+	public static int getFields(int mapMode) {
+		switch (mapMode) {
+		case 0:
+			return WorldData.HEIGHT;
+		case 1:
+			return WorldData.TEMP;
+		case 2:
+			return WorldData.IS_LAND | WorldData.POP;
+		case 3:
+			return WorldData.POP;
+		case 4:
+			return WorldData.CIV;
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the packed rainbow color of a number from 0 to 1 (see {@code Tile.rain()}), rounded down to a multiple of {@code 1 / RESOLUTION}
+	 * @param num
+	 * @return
+	 */
+	public static int rain(float num) {
+		if (!(num > -RAIN_MARGIN && num < RAIN_MAX + RAIN_MARGIN)) {
+			return WHITE;
+		}
+		return RAIN[Math.max(0, Math.min(RAIN.length - 1, (int) (num * RESOLUTION)))];
+	}
+
+	/**
+	 * Returns the shared {@code Color} of a packed color, or a new one if no map mode gives that color
+	 * @param rgb
+	 * @return
+	 */
+	public static Color getColor(int rgb) {
+		int mask = KEYS.length - 1;
+		for (int i = hash(rgb) & mask; COLORS[i] != null; i = (i + 1) & mask) {
+			if (KEYS[i] == rgb) {
+				return COLORS[i];
+			}
+		}
+		return new Color(rgb, true);
+	}
+
+	private static void addColor(int rgb) {
+		int mask = KEYS.length - 1;
+		int i = hash(rgb) & mask;
+		while (COLORS[i] != null) {
+			if (KEYS[i] == rgb) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		KEYS[i] = rgb;
+		COLORS[i] = new Color(rgb, true);
+	}
+
+	private static int hash(int rgb) {
+		return (rgb * 0x9e3779b9) >>> 16;
+	}
+
+	/**
+	 * The rainbow of {@code Tile.rain()}: 0 is red, and it goes through yellow, green, cyan and blue to purple at 1
+	 * @return the packed color, or white if there is no color for the number
+	 */
+	private static int calcRain(float num) {
+		int red, green, blue;
+		if (num <= 0.2f) {
+			red = 255;
+		}
+		else if (num < 0.4f) {
+			red = Tile.scale(num, 0.4f, 0.2f);
+		}
+		else if (num <= 0.8f) {
+			red = 0;
+		}
+		else if (num < 1f) {
+			red = Tile.scale(num, 0.8f, 1.0f);
+		}
+		else {
+			red = 255;
+		}
+
+		if (num < 0.2) {
+			green = Tile.scale(num, 0f, 0.2f);
+		}
+		else if (num <= 0.6f) {
+			green = 255;
+		}
+		else if (num < 0.8f) {
+			green = Tile.scale(num, 0.8f, 0.6f);
+		}
+		else {
+			green = 0;
+		}
+
+		if (num <= 0.4) {
+			blue = 0;
+		}
+		else if (num < 0.6f) {
+			blue = Tile.scale(num, 0.4f, 0.6f);
+		}
+		else if (num < 1f) {
+			blue = 255;
+		}
+		else {
+			blue = Tile.scale(num, 1.2f, 1f);
+		}
+
+		if ((red | green | blue) < 0 || red > 255 || green > 255 || blue > 255) {
+			return WHITE;
+		}
+		return 0xff000000 | (red << 16) | (green << 8) | blue;
+	}
+
+}
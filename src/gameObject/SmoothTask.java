@@ -0,0 +1,87 @@
+package gameObject;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class smooths a band of rows of a map, reading heights from one buffer and writing the smoothed heights to another
+ *
+ * Each tile only reads the source buffer and only writes its own entry of the destination buffer, so bands can be smoothed
+ * in parallel and the result is identical to smoothing every tile in order.
+ */
+class SmoothTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 3342018460257918264L;
+
+	private static final int MIN_BAND_TILES = 4096; //bands smaller than this are smoothed by a single thread
+
+	private HexNeighborhood neighborhood;
+	private float[] source;
+	private float[] destination;
+	private int startRow;
+	private int endRow;
+
+	SmoothTask(HexNeighborhood neighborhood, float[] source, float[] destination, int startRow, int endRow) {
+		this.neighborhood = neighborhood;
+		this.source = source;
+		this.destination = destination;
+		this.startRow = startRow;
+		this.endRow = endRow;
+	}
+
+	@Override
+	protected void compute() {
+		int width = neighborhood.getWidth();
+		if ((endRow - startRow) * width <= MIN_BAND_TILES || endRow - startRow < 2) {
+			smoothRows(neighborhood, source, destination, startRow, endRow);
+			return;
+		}
+		int middleRow = (startRow + endRow) >>> 1;
+		invokeAll(new SmoothTask(neighborhood, source, destination, startRow, middleRow),
+				new SmoothTask(neighborhood, source, destination, middleRow, endRow));
+	}
+
+	/**
+	 * Smooths every tile in rows {@code startRow} (inclusive) to {@code endRow} (exclusive)
+	 */
+	static void smoothRows(HexNeighborhood neighborhood, float[] source, float[] destination, int startRow, int endRow) {
+		int[] ring = new int[HexNeighborhood.diskSize(2)];
+		int width = neighborhood.getWidth();
+		for (int id = startRow * width; id < endRow * width; id++) {
+			destination[id] = smoothTile(neighborhood, source, id, ring);
+		}
+	}
+
+	/**
+	 * Returns a weighted average of a tile's height and its neighbors' (and their neighbors') heights
+	 * @param neighborhood
+	 * @param height
+	 * @param id
+	 * @param ring scratch space for the neighborhood, with room for {@code HexNeighborhood.diskSize(2)} ids
+	 * @return
+	 */
+	static float smoothTile(HexNeighborhood neighborhood, float[] height, int id, int[] ring) {
+		int num = neighborhood.disk(id, 2, ring);
+		float tempVar = 0f;
+		for (int i = 0; i < num; i++) {
+			tempVar += height[ring[i]];
+		}
+		tempVar /= num;
+		tempVar = height[id] * 0.3f + tempVar * 0.7f;
+		return 0.5f * sigmoid(tempVar) + 0.5f * tempVar;
+	}
+
+	/**
+	 * Performs a sigmoid-like function on {@code x}
+	 *
+	 * It is x^2 from 0 to 0.5 and -2(x-1)^2+1 from 0.5 to 1
+	 * @param x
+	 * @return
+	 */
+	private static float sigmoid(float x) {
+		if (x <= 0.5f) {
+			return 2 * x * x;
+		}
+		return -2 * (x - 1) * (x - 1) + 1;
+	}
+
+}
@@ -1,12 +1,16 @@
 package gameObject;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
 import engine.Game;
+import gen.SeedStreams;
+import model.WorldData;
 
 /**
  * This class contains the {@code Tile}s and methods dealing with their manipulation and creation
@@ -14,161 +18,277 @@ import engine.Game;
 public class TileMap {
 
 	private Tile[][] tiles;
-	private Set<Point> points;
+	private WorldData world;
+	private NeighborIndex neighborIndex;
+	private HexNeighborhood neighborhood;
+	private List<int[]> plateIds; //the plate of each tile for each call to splitTiles
 	
+	private ColorCache colorCache; //the colors of each map mode, computed in the background
 	private int mapMode;
+	private int requestedMapMode; //the map mode to switch to once its colors are ready
 	
-	public TileMap(int width, int length) {
+	/**
+	 * Creates a map with random starting heights that are the same for every run with the same seed
+	 * 
+	 * The map is not generated yet; {@code WorldGenerator} runs the generation stages on it
+	 * @param width
+	 * @param length
+	 * @param seed
+	 */
+	public TileMap(int width, int length, long seed) {
+		this(new WorldData(width, length, seed));
+		world.randomizeHeights();
+	}
+	
+	/**
+	 * Creates a map around existing data, such as a world that was loaded from a file
+	 * @param world
+	 */
+	public TileMap(WorldData world) {
+		this.world = world;
+		int width = world.getWidth();
+		int length = world.getLength();
+		neighborIndex = new NeighborIndex(width, length);
+		neighborhood = new HexNeighborhood(width, length);
+		plateIds = new ArrayList<>();
 		tiles = new Tile[width][length];
-		points = new HashSet<>();
+		colorCache = new ColorCache(world);
 		mapMode = -1;
+		requestedMapMode = -1;
 		initializeTiles();
-
-		//procedurally generate the map
-		splitTiles(50);
-		splitTiles(10);
-		splitTiles(3);
-		smooth(4);
-		calcTemp();
-		calcIsLand();
-		calcRain();
-		calcPop();
-		calcCiv();
-		calcSettlement();
-		updateMapMode(0);
 	}
 	
 	public Tile[][] getTiles() {
 		return tiles;
 	}
 	
+	public long getSeed() {
+		return world.getSeed();
+	}
+	
+	public WorldData getWorld() {
+		return world;
+	}
+	
+	public NeighborIndex getNeighborIndex() {
+		return neighborIndex;
+	}
+	
+	public HexNeighborhood getNeighborhood() {
+		return neighborhood;
+	}
+	
+	/**
+	 * Writes the ids of every tile within k steps of a tile (including itself) into {@code out}
+	 * @param id
+	 * @param k
+	 * @param out must have room for at least {@code HexNeighborhood.diskSize(k)} ids
+	 * @return the number of ids written
+	 */
+	public int disk(int id, int k, int[] out) {
+		return neighborhood.disk(id, k, out);
+	}
+	
+	/**
+	 * Writes the ids of every tile exactly k steps from a tile into {@code out}
+	 * @param id
+	 * @param k
+	 * @param out must have room for at least {@code HexNeighborhood.ringSize(k)} ids
+	 * @return the number of ids written
+	 */
+	public int ring(int id, int k, int[] out) {
+		return neighborhood.ring(id, k, out);
+	}
+	
+	/**
+	 * Calls {@code visitor} with the id of every tile within k steps of a tile (including itself)
+	 * @param id
+	 * @param k
+	 * @param visitor
+	 */
+	public void forEachInDisk(int id, int k, IntConsumer visitor) {
+		neighborhood.forEachInDisk(id, k, visitor);
+	}
+	
+	/**
+	 * Calls {@code visitor} with the id of every tile exactly k steps from a tile
+	 * @param id
+	 * @param k
+	 * @param visitor
+	 */
+	public void forEachInRing(int id, int k, IntConsumer visitor) {
+		neighborhood.forEachInRing(id, k, visitor);
+	}
+	
 	/**
 	 * Creates the tiles of the map
 	 */
 	private void initializeTiles() {
 		for (int i = 0; i < tiles.length; i++) {
 			for (int j = 0; j < tiles[0].length; j++) {
-				tiles[i][j] = new Tile(i, j, 1.0f, this);
+				tiles[i][j] = new Tile(i, j, this);
 			}
 		}
 	}
 	
+	/**
+	 * Returns the map mode the tiles are colored for, or -1 if they haven't been colored yet
+	 * @return
+	 */
+	public int getMapMode() {
+		return mapMode;
+	}
+	
+	/**
+	 * Switches the tiles to the colors of a map mode
+	 * 
+	 * If that map mode has been seen before and its fields haven't changed since, this only swaps arrays. Otherwise, its colors are computed
+	 * in the background and the tiles keep their current colors until {@code updateColors()} finds them ready. The first map mode is colored
+	 * right away, as there is nothing to show until it is.
+	 * @param mapMode
+	 */
 	public void updateMapMode(int mapMode) {
-		//System.out.println("mapmode" + mapMode);
-		if (mapMode >= 0 && mapMode <= 4 && mapMode != this.mapMode) {
-			//System.out.println("doing");
+		if (mapMode < 0 || mapMode >= ColorCache.NUM_MAP_MODES) {
+			return;
+		}
+		requestedMapMode = mapMode;
+		if (this.mapMode == -1) {
+			world.setColors(colorCache.getNow(mapMode));
 			this.mapMode = mapMode;
-			for (int i = 0; i < tiles.length; i++) {
-				for (int j = 0; j < tiles[0].length; j++) {
-					tiles[i][j].resetColor(mapMode);
-				}
-			}
 		}
-	}
-	
-	public Set<Point> getPoints() {
-		return points;
+		else {
+			updateColors();
+		}
 	}
 	
 	/**
-	 * Creates a new point given coordinates
-	 * @param x
-	 * @param y
-	 * @return
+	 * Switches to the colors of the last map mode asked for if they're ready, and starts recoloring it if its fields have changed
+	 * 
+	 * Called every update, on the same thread that draws the map, so a frame never sees half of a switch
 	 */
-	public Point createNewPoint(float x, float y) {
-		
-		Point newPoint = new Point(x, y);
-		
-		points.add(newPoint);
-		return newPoint;
-		
+	public void updateColors() {
+		if (requestedMapMode == -1) {
+			return;
+		}
+		int[] colors = colorCache.get(requestedMapMode);
+		if (colors != null && colors != world.getColorSource()) {
+			world.setColors(colors);
+			mapMode = requestedMapMode;
+		}
 	}
 	
 	/**
-	 * Calls {@code smooth()} on each tile, then resets their color and tileDataAlpha
+	 * Writes each tile's smoothed height to its tempVar, then swaps the tempVar and height buffers
 	 * 
-	 * Here, {@code reset()} sets the values so that each tile can be modified depending on their neighbors original tileDataAlpha. For example,
-	 * if a neighbor has {@code smooth()} called and its tileDataAlpha was changed, if any of its neighbors called {@code smooth()}, they would
-	 * read the first neighbor's tileDataAlpha as the changed one, resulting in odd effects that depend on which order {@code smooth()} is called.
+	 * Here, the separate buffers make each tile be modified depending on their neighbors original tileDataAlpha. For example,
+	 * if a neighbor was smoothed and its tileDataAlpha was changed, if any of its neighbors were then smoothed, they would
+	 * read the first neighbor's tileDataAlpha as the changed one, resulting in odd effects that depend on which order the tiles are smoothed in.
+	 * Because of this, bands of rows are smoothed in parallel and the result is identical to {@code smooth(n, false)}.
 	 * @param n the number of times to smooth
 	 */
 	public void smooth(int n) {
+		smooth(n, true);
+	}
+	
+	/**
+	 * Smooths the map n times, either on the common fork-join pool or on the calling thread
+	 * @param n the number of times to smooth
+	 * @param parallel
+	 */
+	public void smooth(int n, boolean parallel) {
 		for (int k = 0; k < n; k++) {
-			for (int i = 0; i < tiles.length; i++) {
-				for (int j = 0; j < tiles[0].length; j++) {
-					tiles[i][j].getTileData().smooth();
-				}
+			if (parallel) {
+				ForkJoinPool.commonPool().invoke(new SmoothTask(neighborhood, world.getHeights(), world.getTempVars(), 0, world.getLength()));
 			}
-			for (int i = 0; i < tiles.length; i++) {
-				for (int j = 0; j < tiles[0].length; j++) {
-					tiles[i][j].getTileData().reset();
-				}
+			else {
+				SmoothTask.smoothRows(neighborhood, world.getHeights(), world.getTempVars(), 0, world.getLength());
 			}
+			world.swapTempVar();
 		}
 	}
 	
 	/**
 	 * Splits the tiles into n chunks and modifies the tileDataAlpha of each tile in each chunk by the same random number
+	 * 
+	 * The chunks (plates) are grown from unique random source tiles by a breadth-first flood fill, so every plate grows by one ring of tiles
+	 * in turn until all tiles are assigned. The plate id of each tile is kept in {@code getPlateIds()}.
 	 * @param n
 	 */
 	public void splitTiles(int n) {
+		int numTiles = world.getNumTiles();
+		n = Math.min(n, numTiles);
+		int[] owner = new int[numTiles]; //the plate each tile has been assigned to, or -1 if it hasn't been assigned yet
+		Arrays.fill(owner, -1);
+		int[] queue = new int[numTiles]; //the frontier of the flood fill; each tile is added exactly once, when it is assigned
+		int head = 0;
+		int tail = 0;
 		
-		Set<Tile>[] plates = new HashSet[n]; //an array containing each chunk (plate)
-		Set<Tile> assignedTiles = new HashSet<>(); //keep track of tiles that have already been assigned to avoid overlap
-		Set<Tile> disabledTiles = new HashSet<>(); //keep track of tiles whose neighbors are all already assigned to speed up the algorithm
-		int numAssigned = 0; //keep track of the number of tiles assigned so we know when we're finished
-		int numTiles = tiles.length * tiles[0].length;
+		//each call gets its own stream, so the plates only depend on the seed and the order of the calls
+		SplittableRandom random = SeedStreams.stream(world.getSeed(), SeedStreams.STAGE_SPLIT, plateIds.size());
 		
 		//initialize plates with unique source tiles
-		for (int i = 0; i < n; i++) { //for each plate
-			plates[i] = new HashSet<Tile>(); //initialize the plate
-			Tile sourceTile = tiles[(int)(Math.random() * getTiles().length)][(int)(Math.random() * getTiles()[0].length)]; //try to set the source tile
-			while (assignedTiles.contains(sourceTile)) { //keep trying to assign it if its already assigned
-				sourceTile = tiles[(int)(Math.random() * getTiles().length)][(int)(Math.random() * getTiles()[0].length)];
+		for (int i = 0; i < n; i++) {
+			int source = random.nextInt(numTiles);
+			while (owner[source] != -1) { //keep trying to assign it if its already assigned
+				source = random.nextInt(numTiles);
 			}
-			plates[i].add(sourceTile);
-			assignedTiles.add(sourceTile);
-			numAssigned++;
+			owner[source] = i;
+			queue[tail] = source;
+			tail++;
 		}
 		
-		while (numAssigned < numTiles) { //continue until we run out of tiles to assign
-			for (int i = 0; i < plates.length; i++) { //for each plate
-				Set<Tile> newTiles = new HashSet<>(); //temp varaible to avoid concurrent modification
-				for (Tile t : plates[i]) { //for each tile in this plate
-					if (!disabledTiles.contains(t)) { //if the tile isnt disabled
-						Set<Tile> neighbors = t.getNeighbors(); //get the tile's neighbors
-						for (Tile s : neighbors) { //for each neighbor
-							if (!assignedTiles.contains(s)) { //if it isn't already assigned
-								newTiles.add(s); //add it to the plate
-								assignedTiles.add(s); //add it to the list of assigned tiles
-								numAssigned++; //increment the number of total assigned tiles
-							}
-						}
-						disabledTiles.add(t); //disable the tile who's neighbors are all now assigned
-					}
+		//the sources were queued in plate order, so the queue hands out each ring of tiles to the plates in that order too
+		while (head < tail) {
+			int id = queue[head];
+			head++;
+			for (int k = neighborIndex.start(id); k < neighborIndex.end(id); k++) {
+				int neighbor = neighborIndex.get(k);
+				if (owner[neighbor] == -1) {
+					owner[neighbor] = owner[id];
+					queue[tail] = neighbor;
+					tail++;
 				}
-				plates[i].addAll(newTiles);
 			}
 		}
 		
-		for (int i = 0; i < plates.length; i++) { //for each plate
-			float rand = (float) Math.random(); //generate a random number
-			for (Tile t : plates[i]) { //for each tile in that plate
-				t.getTileData().setTempVar(rand * 0.3f + t.getTileData().getHeight() * 0.7f); //modify the tile's data by that random number
-				t.getTileData().reset(); //reset the height and color of that tile
-				
-				//TODO separate the resetting to make the calcRain function
-			}
+		float[] rand = new float[n]; //a random number for each plate
+		for (int i = 0; i < n; i++) {
+			rand[i] = (float) random.nextDouble();
 		}
+		float[] height = world.getHeights();
+		for (int id = 0; id < numTiles; id++) {
+			world.setTempVar(id, rand[owner[id]] * 0.3f + height[id] * 0.7f); //modify the tile's data by its plate's random number
+		}
+		world.swapTempVar();
+		plateIds.add(owner);
+		
+		//TODO separate the resetting to make the calcRain function
+	}
+	
+	/**
+	 * Returns the plate id of each tile (indexed by tile id) from a call to {@code splitTiles()}
+	 * @param split the number of the call to {@code splitTiles()}, starting from 0
+	 * @return
+	 */
+	public int[] getPlateIds(int split) {
+		return plateIds.get(split);
+	}
+	
+	public int getNumSplits() {
+		return plateIds.size();
 	}
 	
 	public void calcTemp() {
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles[0].length; j++) {
-				tiles[i][j].getTileData().calcTemp();
-			}
-		}
+		world.calcTemp();
+	}
+	
+	/**
+	 * Returns the tile with the given id
+	 * @param id
+	 * @return
+	 */
+	public Tile getTile(int id) {
+		return tiles[world.getX(id)][world.getY(id)];
 	}
 	
 	public Tile getTile(int x, int y) {
@@ -179,11 +299,7 @@ public class TileMap {
 	}
 	
 	public void calcIsLand() {
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles[0].length; j++) {
-				tiles[i][j].getTileData().calcIsLand();
-			}
-		}
+		world.calcIsLand();
 	}
 	
 	public void calcRain() {
@@ -191,64 +307,110 @@ public class TileMap {
 	}
 	
 	public void calcPop() {
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles[0].length; j++) {
-				tiles[i][j].getTileData().calcPop();
-			}
-		}
+		world.calcPop();
 	}
 	
+	/**
+	 * Sets each land tile's civ to the average pop of its neighbors (and their neighbors), boosted if it is coastal
+	 */
 	public void calcCiv() {
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles[0].length; j++) {
-				tiles[i][j].getTileData().calcCiv();
+		float[] pop = world.getPops();
+		float[] civ = world.getCivs();
+		int[] ring = new int[HexNeighborhood.diskSize(2)];
+		for (int id = 0; id < civ.length; id++) {
+			civ[id] = calcTileCiv(neighborhood, world.getIsLand(), pop, id, ring);
+		}
+		world.markChanged(WorldData.CIV);
+	}
+	
+	/**
+	 * Returns the civ of a single tile from the pop and land flags around it
+	 * @param neighborhood
+	 * @param isLand
+	 * @param pop
+	 * @param id
+	 * @param ring scratch space for the neighborhood, with room for {@code HexNeighborhood.diskSize(2)} ids
+	 * @return
+	 */
+	static float calcTileCiv(HexNeighborhood neighborhood, BitSet isLand, float[] pop, int id, int[] ring) {
+		if (!isLand.get(id)) {
+			return 0f;
+		}
+		boolean isCoastal = false;
+		int num = neighborhood.ring(id, 1, ring);
+		for (int i = 0; i < num; i++) {
+			if (!isLand.get(ring[i])) {
+				isCoastal = true;
 			}
 		}
+		num = neighborhood.disk(id, 2, ring);
+		float total = 0f;
+		for (int i = 0; i < num; i++) {
+			total += pop[ring[i]];
+		}
+		float civ = total / num;
+		if (isCoastal)  {
+			civ = (3f * civ) - (3 * civ * civ) + (civ * civ * civ);
+		}
+		return civ;
 	}
 	
+	/**
+	 * Creates settlements greedily, from the tile with the highest civ down, skipping tiles that are too close to an existing settlement
+	 * 
+	 * Tiles are visited in order of decreasing civ (ties in column then row order), and each new settlement marks the tiles within
+	 * {@code getSettlementRadius()} steps of it as excluded. Placement stops at the first free tile with a civ below 0.1.
+	 */
 	public void calcSettlement() {
-		List<Tile> sortedTiles = new ArrayList<>(10000);
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles[0].length; j++) {
-				sortedTiles.add(tiles[i][j]);
-			}
+		float[] civ = world.getCivs();
+		int numTiles = civ.length;
+		int length = world.getLength();
+		
+		//each key sorts by decreasing civ, then by column and row, and keeps the column and row in its low bits
+		long[] order = new long[numTiles];
+		for (int id = 0; id < numTiles; id++) {
+			int bits = Float.floatToIntBits(civ[id]);
+			int sortable = bits ^ ((bits >> 31) & 0x7fffffff); //orders the same way as the float does
+			order[id] = ((long) ~sortable << 32) | (world.getX(id) * length + world.getY(id));
 		}
-		sortedTiles.sort(new Comparator<Tile>() {
-
-			@Override
-			public int compare(Tile t1, Tile t2) {
-				//System.out.println(t2.getTileData().getCiv() - t1.getTileData().getCiv());
-				int value = (int) (100000f * (t2.getTileData().getCiv() - t1.getTileData().getCiv()));
-				//System.out.println(value);
-				return value;
-			}
-			
-		});
-		//minimum civ value for city
-		boolean cont = true;
-		while(cont) {
-			Tile cityTile = sortedTiles.get(0);
-			cityTile.getTileData().createSettlement();
-			sortedTiles.remove(0);
-			Set<Tile> neighbors = new HashSet<>();
-			neighbors.add(cityTile);
-			for (int i = 0; i < 3f / (cityTile.getTileData().getCiv() * cityTile.getTileData().getCiv()); i++) {
-				Set<Tile> newNeighbors = new HashSet<>();
-				for (Tile t : neighbors) {
-					newNeighbors.addAll(t.getNeighbors());
-				}
-				neighbors.addAll(newNeighbors);
-			}
-			sortedTiles.removeAll(neighbors);
-			
-			if (sortedTiles.size() == 0) {
-				cont = false;
+		Arrays.sort(order);
+		
+		boolean[] excluded = new boolean[numTiles];
+		IntConsumer exclude = (int id) -> {
+			excluded[id] = true;
+		};
+		boolean first = true;
+		for (int i = 0; i < numTiles; i++) {
+			int columnMajor = (int) order[i];
+			int id = world.index(columnMajor / length, columnMajor % length);
+			if (excluded[id]) {
+				continue;
 			}
-			else if (sortedTiles.get(0).getTileData().getCiv() < 0.1) {
-				cont = false;
+			//minimum civ value for city
+			if (!first && civ[id] < 0.1) {
+				break;
 			}
-			
+			first = false;
+			world.createSettlement(id);
+			forEachInDisk(id, getSettlementRadius(civ[id], world.getWidth() + world.getLength()), exclude);
+		}
+	}
+	
+	/**
+	 * Returns the number of steps around a settlement in which no other settlement can be created
+	 * 
+	 * Settlements with a lower civ keep other settlements further away.
+	 * @param civ the civ of the settlement's tile
+	 * @param maxRadius the largest radius to return, such as the size of the map
+	 * @return
+	 */
+	static int getSettlementRadius(float civ, int maxRadius) {
+		float limit = 3f / (civ * civ);
+		int radius = 0;
+		while (radius < limit && radius < maxRadius) {
+			radius++;
 		}
+		return radius;
 	}
 	
 }
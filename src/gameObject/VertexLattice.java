@@ -0,0 +1,194 @@
+package gameObject;
+
+/**
+ * This class finds the on-screen positions of the vertices of the hexagons, without storing a point for each vertex
+ *
+ * Every vertex of the grid lies on a lattice: its x value is {@code 1 + vx / 2} and its y value is {@code (1 + vy) * SQRT_3 / 2} for
+ * integer lattice indices vx and vy. A tile's corners are at fixed offsets from {@code (3x, 2y + x % 2)}, so tiles that share a vertex
+ * compute the same indices for it, and therefore the same position, and no gaps appear between them. Since a vertex's on-screen x value
+ * only depends on vx and its y value only on vy, {@code update()} transforms one row of x values and one column of y values for the
+ * visible part of the map, and a tile's hexagon is then read from them.
+ *
+ * A vertex's on-screen position is its position at the zoom, rounded down to a pixel, minus the pixel the camera's top left corner is
+ * at (see {@code getOriginX()}). Moving the camera therefore moves every vertex by exactly the same whole number of pixels, so a frame
+ * can be scrolled instead of drawn again.
+ */
+public class VertexLattice {
+
+	private static final float SQRT_3 = (float) Math.sqrt(3.0);
+
+	//the lattice offsets of each corner of a tile
+	//   0 1
+	//  5   2
+	//   4 3
+	private static final int[] CORNER_VX = {-1, 1, 2, 1, -1, -2};
+	private static final int[] CORNER_VY = {-1, -1, 0, 1, 1, 0};
+
+	private int minVx; //the first lattice column in screenX
+	private int minVy; //the first lattice row in screenY
+	private int[] screenX;
+	private int[] screenY;
+	private int originX; //the pixel, at the zoom, at the left edge of the screen
+	private int originY; //the pixel, at the zoom, at the top edge of the screen
+
+	public VertexLattice() {
+		screenX = new int[0];
+		screenY = new int[0];
+	}
+
+	/**
+	 * Returns the lattice column of a corner of a tile
+	 * @param x the tile's column
+	 * @param corner
+	 * @return
+	 */
+	public static int getVertexColumn(int x, int corner) {
+		return 3 * x + CORNER_VX[corner];
+	}
+
+	/**
+	 * Returns the lattice row of a corner of a tile
+	 * @param x the tile's column
+	 * @param y the tile's row
+	 * @param corner
+	 * @return
+	 */
+	public static int getVertexRow(int x, int y, int corner) {
+		return 2 * y + (x & 1) + CORNER_VY[corner];
+	}
+
+	/**
+	 * Returns the x value of a lattice column
+	 * @param vx
+	 * @return
+	 */
+	public static float getX(int vx) {
+		return 1 + vx * 0.5f;
+	}
+
+	/**
+	 * Returns the y value of a lattice row
+	 * @param vy
+	 * @return
+	 */
+	public static float getY(int vy) {
+		return (1 + vy) * (SQRT_3 / 2);
+	}
+
+	/**
+	 * Transforms the vertices of every tile in a range of columns and rows to the screen
+	 * @param cameraX
+	 * @param cameraY
+	 * @param zoom
+	 * @param halfWidth
+	 * @param halfHeight
+	 * @param minColumn
+	 * @param maxColumn
+	 * @param minRow
+	 * @param maxRow
+	 */
+	public void update(float cameraX, float cameraY, float zoom, int halfWidth, int halfHeight, int minColumn, int maxColumn, int minRow, int maxRow) {
+		//corners reach 2 lattice columns to either side of 3x, and from 1 lattice row above 2y to 1 below 2y + 1
+		minVx = 3 * minColumn - 2;
+		int maxVx = 3 * maxColumn + 2;
+		minVy = 2 * minRow - 1;
+		int maxVy = 2 * maxRow + 2;
+
+		int numColumns = Math.max(0, maxVx - minVx + 1);
+		int numRows = Math.max(0, maxVy - minVy + 1);
+		if (screenX.length < numColumns) {
+			screenX = new int[numColumns];
+		}
+		if (screenY.length < numRows) {
+			screenY = new int[numRows];
+		}
+		originX = getOrigin(cameraX, zoom, halfWidth);
+		originY = getOrigin(cameraY, zoom, halfHeight);
+		for (int i = 0; i < numColumns; i++) {
+			screenX[i] = (int) Math.floor(getX(minVx + i) * zoom) - originX;
+		}
+		for (int i = 0; i < numRows; i++) {
+			screenY[i] = (int) Math.floor(getY(minVy + i) * zoom) - originY;
+		}
+	}
+
+	/**
+	 * Returns the pixel, at a zoom, that is at the left (or top) edge of the screen
+	 * @param camera the camera's x (or y) value
+	 * @param zoom
+	 * @param half half the width (or height) of the screen
+	 * @return
+	 */
+	public static int getOrigin(float camera, float zoom, int half) {
+		return (int) Math.floor(camera * zoom) - half;
+	}
+
+	/**
+	 * Writes the on-screen coordinates of a tile's corners, in the order {@code Graphics.fillPolygon()} takes them
+	 *
+	 * The tile must be within the bounds of the last call to {@code update()}
+	 * @param x
+	 * @param y
+	 * @param xPoints must have room for 6 values
+	 * @param yPoints must have room for 6 values
+	 */
+	public void getPolygon(int x, int y, int[] xPoints, int[] yPoints) {
+		int vx = 3 * x - minVx;
+		int vy = 2 * y + (x & 1) - minVy;
+		for (int i = 0; i < 6; i++) {
+			xPoints[i] = screenX[vx + CORNER_VX[i]];
+			yPoints[i] = screenY[vy + CORNER_VY[i]];
+		}
+	}
+
+	/**
+	 * Writes the square a settlement is drawn as on a tile: as wide as the tile's top edge, centered on the tile
+	 * @param xPoints the tile's corners, from {@code getPolygon()}
+	 * @param yPoints
+	 * @param square where the square's left, top and size are written
+	 * @param offset the index in {@code square} of its left
+	 */
+	public static void getSettlementSquare(int[] xPoints, int[] yPoints, int[] square, int offset) {
+		int size = xPoints[1] - xPoints[0];
+		int centerX = xPoints[0] + size / 2;
+		int centerY = yPoints[0] + (int) (size * (Math.sqrt(3) / 2));
+		square[offset] = centerX - size / 2;
+		square[offset + 1] = centerY - size / 2;
+		square[offset + 2] = size;
+	}
+
+	/**
+	 * Returns the on-screen x value of a lattice column, which must be within the bounds of the last call to {@code update()}
+	 * @param vx
+	 * @return
+	 */
+	public int getScreenX(int vx) {
+		return screenX[vx - minVx];
+	}
+
+	/**
+	 * Returns the on-screen y value of a lattice row, which must be within the bounds of the last call to {@code update()}
+	 * @param vy
+	 * @return
+	 */
+	public int getScreenY(int vy) {
+		return screenY[vy - minVy];
+	}
+
+	/**
+	 * Returns the pixel, at the zoom of the last call to {@code update()}, at the left edge of the screen
+	 * @return
+	 */
+	public int getOriginX() {
+		return originX;
+	}
+
+	/**
+	 * Returns the pixel, at the zoom of the last call to {@code update()}, at the top edge of the screen
+	 * @return
+	 */
+	public int getOriginY() {
+		return originY;
+	}
+
+}
@@ -0,0 +1,65 @@
+package gen;
+
+import java.util.function.Consumer;
+
+import gameObject.TileMap;
+import profiling.GenerationStageEvent;
+
+/**
+ * This class is a single named step of world generation, such as smoothing or calculating temperature
+ */
+public class GenerationStage {
+
+	public static final String INITIALIZE = "initialize"; //the name of the map's creation, which comes before every stage
+
+	private String name;
+	private Consumer<TileMap> action;
+
+	public GenerationStage(String name, Consumer<TileMap> action) {
+		this.name = name;
+		this.action = action;
+	}
+
+	/**
+	 * Runs this stage on a map, as a {@code GenerationStageEvent} for Flight Recorder
+	 * @param tileMap
+	 */
+	public void run(TileMap tileMap) {
+		GenerationStageEvent event = new GenerationStageEvent();
+		event.begin();
+		action.accept(tileMap);
+		event.end();
+		commit(event, name, tileMap);
+	}
+
+	/**
+	 * Creates a map for the stages to run on, as a {@code GenerationStageEvent} named {@code INITIALIZE}
+	 * @param width
+	 * @param length
+	 * @param seed
+	 * @return
+	 */
+	public static TileMap initialize(int width, int length, long seed) {
+		GenerationStageEvent event = new GenerationStageEvent();
+		event.begin();
+		TileMap tileMap = new TileMap(width, length, seed);
+		event.end();
+		commit(event, INITIALIZE, tileMap);
+		return tileMap;
+	}
+
+	private static void commit(GenerationStageEvent event, String name, TileMap tileMap) {
+		if (event.shouldCommit()) {
+			event.stage = name;
+			event.width = tileMap.getWorld().getWidth();
+			event.length = tileMap.getWorld().getLength();
+			event.tiles = tileMap.getWorld().getNumTiles();
+			event.commit();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,72 @@
+package gen;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class derives independent random number streams from a world's seed
+ *
+ * Each generation stage, and each chunk of work within a stage, gets its own stream that only depends on the seed, the stage and the chunk.
+ * So the same seed gives the same world no matter which threads generate which chunks, or in what order.
+ */
+public final class SeedStreams {
+
+	public static final int STAGE_HEIGHT = 1;
+	public static final int STAGE_SPLIT = 2;
+	public static final int STAGE_PEOPLE = 3;
+	public static final int STAGE_TILE_HEIGHT = 4;
+	public static final int STAGE_PLATE_SOURCE = 5;
+	public static final int STAGE_PLATE_OFFSET = 6;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private SeedStreams() {
+
+	}
+
+	/**
+	 * Returns the seed of the stream for a chunk of a stage
+	 * @param seed the world's seed
+	 * @param stage one of the {@code STAGE_} constants
+	 * @param chunk the chunk of work within the stage
+	 * @return
+	 */
+	public static long derive(long seed, int stage, long chunk) {
+		return mix(mix(seed + stage * GOLDEN_GAMMA) + chunk * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Returns a new stream for a chunk of a stage
+	 * @param seed the world's seed
+	 * @param stage one of the {@code STAGE_} constants
+	 * @param chunk the chunk of work within the stage
+	 * @return
+	 */
+	public static SplittableRandom stream(long seed, int stage, long chunk) {
+		return new SplittableRandom(derive(seed, stage, chunk));
+	}
+
+	/**
+	 * Returns a random number from 0 (inclusive) to 1 (exclusive) for a chunk of a stage, without creating a stream
+	 * 
+	 * This is used where every tile needs its own number, such as when chunks of a world are generated separately
+	 * @param seed the world's seed
+	 * @param stage one of the {@code STAGE_} constants
+	 * @param chunk the chunk of work (or tile) within the stage
+	 * @return
+	 */
+	public static float hash(long seed, int stage, long chunk) {
+		return (derive(seed, stage, chunk) >>> 40) * 0x1.0p-24f;
+	}
+
+	/**
+	 * The finalizer of SplitMix64, which spreads every bit of {@code z} over the whole result
+	 * @param z
+	 * @return
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -0,0 +1,52 @@
+package gen;
+
+/**
+ * This class contains the measurements of one run of a {@code GenerationStage}
+ */
+public class StageReport {
+
+	private String name;
+	private long nanos; //wall time taken by the stage
+	private long allocatedBytes; //bytes allocated while the stage ran, or -1 if the JVM can't measure it
+	private int numTiles;
+
+	public StageReport(String name, long nanos, long allocatedBytes, int numTiles) {
+		this.name = name;
+		this.nanos = nanos;
+		this.allocatedBytes = allocatedBytes;
+		this.numTiles = numTiles;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public int getNumTiles() {
+		return numTiles;
+	}
+
+	/**
+	 * Returns the number of tiles this stage would process in a second at the measured speed
+	 * @return
+	 */
+	public double getTilesPerSecond() {
+		if (nanos == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return numTiles * 1e9 / nanos;
+	}
+
+	public String toString() {
+		String allocated = allocatedBytes < 0 ? "?" : (allocatedBytes / 1024) + " KiB";
+		return String.format("%-16s %9.2f ms %12s %14.0f tiles/s", name, nanos / 1e6, allocated, getTilesPerSecond());
+	}
+
+}
@@ -0,0 +1,280 @@
+package gen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import gameObject.TileMap;
+import model.WorldData;
+
+/**
+ * This class saves and loads generated worlds in a versioned, column-oriented binary format through memory-mapped files
+ *
+ * The file starts with a header holding the seed and generator parameters the world was made with, followed by a table of columns.
+ * Each column is one field of {@code WorldData} for every tile, stored exactly as it is in memory (little-endian), so loading a column is
+ * a single bulk copy from the mapped file rather than parsing.
+ *
+ * <pre>
+ * header:  magic, version, width, length (int), seed (long), splits alpha, beta, gamma, smooths, number of columns, padding (int)
+ * table:   for each column: id, padding (int), offset, byte length (long)
+ * columns: 8-byte aligned
+ * </pre>
+ */
+public class WorldFile {
+
+	public static final int MAGIC = 0x49544457; //"ITDW"
+	public static final int VERSION = 1;
+
+	public static final int COLUMN_HEIGHT = 1; //float per tile
+	public static final int COLUMN_TEMP = 2; //float per tile
+	public static final int COLUMN_POP = 3; //float per tile
+	public static final int COLUMN_CIV = 4; //float per tile
+	public static final int COLUMN_IS_LAND = 5; //the words of a BitSet (long)
+	public static final int COLUMN_SETTLEMENTS = 6; //ids of the tiles with settlements (int)
+
+	private static final int HEADER_BYTES = 48;
+	private static final int TABLE_ENTRY_BYTES = 24;
+	private static final int NUM_COLUMNS = 6;
+
+	private WorldFile() {
+
+	}
+
+	/**
+	 * Saves a generated map, along with the parameters of the generator that made it
+	 * @param path
+	 * @param tileMap
+	 * @param generator
+	 * @throws IOException if the file can't be written, or the world is too big for a world file
+	 */
+	public static void write(Path path, TileMap tileMap, WorldGenerator generator) throws IOException {
+		WorldData world = tileMap.getWorld();
+		int numTiles = world.getNumTiles();
+		long[] isLand = world.getIsLand().toLongArray();
+		int[] settlements = world.getSettlementIds();
+
+		int[] ids = {COLUMN_HEIGHT, COLUMN_TEMP, COLUMN_POP, COLUMN_CIV, COLUMN_IS_LAND, COLUMN_SETTLEMENTS};
+		long[] lengths = {4L * numTiles, 4L * numTiles, 4L * numTiles, 4L * numTiles, 8L * isLand.length, 4L * settlements.length};
+		long[] offsets = new long[NUM_COLUMNS];
+		long size = HEADER_BYTES + TABLE_ENTRY_BYTES * NUM_COLUMNS;
+		for (int i = 0; i < NUM_COLUMNS; i++) {
+			offsets[i] = size;
+			size = align(size + lengths[i]);
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("A world of " + world.getWidth() + "x" + world.getLength() + " tiles takes " + size + " bytes, more than a world file can be");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(world.getWidth());
+			buffer.putInt(world.getLength());
+			buffer.putLong(world.getSeed());
+			buffer.putInt(generator.getNumSplitsAlpha());
+			buffer.putInt(generator.getNumSplitsBeta());
+			buffer.putInt(generator.getNumSplitsGamma());
+			buffer.putInt(generator.getNumSmooths());
+			buffer.putInt(NUM_COLUMNS);
+			buffer.putInt(0);
+			for (int i = 0; i < NUM_COLUMNS; i++) {
+				buffer.putInt(ids[i]);
+				buffer.putInt(0);
+				buffer.putLong(offsets[i]);
+				buffer.putLong(lengths[i]);
+			}
+
+			buffer.position((int) offsets[0]);
+			buffer.asFloatBuffer().put(world.getHeights());
+			buffer.position((int) offsets[1]);
+			buffer.asFloatBuffer().put(world.getTemps());
+			buffer.position((int) offsets[2]);
+			buffer.asFloatBuffer().put(world.getPops());
+			buffer.position((int) offsets[3]);
+			buffer.asFloatBuffer().put(world.getCivs());
+			buffer.position((int) offsets[4]);
+			buffer.asLongBuffer().put(isLand);
+			buffer.position((int) offsets[5]);
+			buffer.asIntBuffer().put(settlements);
+			buffer.force();
+		}
+	}
+
+	/**
+	 * Loads a map saved by {@code write()}
+	 * @param path
+	 * @return
+	 * @throws IOException if the file isn't a world file of this version, is missing a column, or has a header, table or column that
+	 * doesn't fit the file or the world's size
+	 */
+	public static TileMap read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES) {
+				throw new IOException(path + " is too short to be a world file");
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(path + " is " + size + " bytes, more than a world file can be");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			WorldGenerator header = readHeader(buffer, path);
+			//the four float columns alone take 16 bytes a tile, so a bigger world can't be in the file
+			long numTiles = (long) header.getMapWidth() * header.getMapHeight();
+			if (16 * numTiles > size) {
+				throw new IOException(path + " is " + size + " bytes, too short for a world of " + header.getMapWidth() + "x" + header.getMapHeight() + " tiles");
+			}
+
+			int numColumns = buffer.getInt(40);
+			if (numColumns < 0 || HEADER_BYTES + (long) numColumns * TABLE_ENTRY_BYTES > size) {
+				throw new IOException(path + " has a table of " + numColumns + " columns, which doesn't fit in the file");
+			}
+			WorldData world = new WorldData(header.getMapWidth(), header.getMapHeight(), header.getSeed());
+			boolean[] found = new boolean[NUM_COLUMNS + 1];
+			for (int i = 0; i < numColumns; i++) {
+				int entry = HEADER_BYTES + i * TABLE_ENTRY_BYTES;
+				int id = buffer.getInt(entry);
+				long offset = buffer.getLong(entry + 8);
+				long length = buffer.getLong(entry + 16);
+				if (offset < 0 || length < 0 || offset > size || length > size - offset) {
+					throw new IOException("Column " + id + " is outside of " + path);
+				}
+				if (id >= 1 && id <= NUM_COLUMNS && found[id]) {
+					throw new IOException("Column " + id + " appears twice in " + path);
+				}
+				buffer.position((int) offset); //less than size, which fits in an int
+				switch (id) {
+				case COLUMN_HEIGHT:
+					checkLength(length, 4L * numTiles, id, path);
+					buffer.asFloatBuffer().get(world.getHeights());
+					break;
+				case COLUMN_TEMP:
+					checkLength(length, 4L * numTiles, id, path);
+					buffer.asFloatBuffer().get(world.getTemps());
+					break;
+				case COLUMN_POP:
+					checkLength(length, 4L * numTiles, id, path);
+					buffer.asFloatBuffer().get(world.getPops());
+					break;
+				case COLUMN_CIV:
+					checkLength(length, 4L * numTiles, id, path);
+					buffer.asFloatBuffer().get(world.getCivs());
+					break;
+				case COLUMN_IS_LAND:
+					//the BitSet's words, without the trailing ones that are 0
+					long maxLength = 8 * ((numTiles + 63) / 64);
+					if (length % 8 != 0 || length > maxLength) {
+						throw new IOException("Column " + id + " of " + path + " has " + length + " bytes instead of a multiple of 8 up to " + maxLength);
+					}
+					long[] words = new long[(int) (length / 8)];
+					buffer.asLongBuffer().get(words);
+					BitSet isLand = BitSet.valueOf(words);
+					if (isLand.length() > numTiles) {
+						throw new IOException("Column " + id + " of " + path + " marks tile " + (isLand.length() - 1) + " as land, but there are only " + numTiles + " tiles");
+					}
+					world.getIsLand().or(isLand);
+					break;
+				case COLUMN_SETTLEMENTS:
+					if (length % 4 != 0 || length > 4 * numTiles) {
+						throw new IOException("Column " + id + " of " + path + " has " + length + " bytes instead of a multiple of 4 up to " + 4 * numTiles);
+					}
+					int[] settlements = new int[(int) (length / 4)];
+					buffer.asIntBuffer().get(settlements);
+					for (int settlement : settlements) {
+						if (settlement < 0 || settlement >= numTiles) {
+							throw new IOException("Column " + id + " of " + path + " has a settlement on tile " + settlement + ", but there are only " + numTiles + " tiles");
+						}
+						world.createSettlement(settlement);
+					}
+					break;
+				default:
+					continue; //a column from a newer writer that this version doesn't use
+				}
+				found[id] = true;
+			}
+			for (int id = 1; id <= NUM_COLUMNS; id++) {
+				if (!found[id]) {
+					throw new IOException("Column " + id + " is missing from " + path);
+				}
+			}
+			return new TileMap(world);
+		}
+	}
+
+	/**
+	 * Reads the size, seed and generator parameters a saved world was made with, without loading the world
+	 * @param path
+	 * @return a generator with the saved world's parameters
+	 * @throws IOException if the file isn't a world file of this version, or its size can't be made
+	 */
+	public static WorldGenerator readHeader(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			//read rather than mapped, as a mapping lasts until it is garbage collected and would stop the file being written again
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException(path + " is too short to be a world file");
+				}
+			}
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return readHeader(buffer, path);
+		}
+	}
+
+	/**
+	 * Returns {@code true} if a saved world was made by a generator with the same size, seed and parameters as {@code generator}
+	 * @param path
+	 * @param generator
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean matches(Path path, WorldGenerator generator) throws IOException {
+		WorldGenerator saved = readHeader(path);
+		return saved.getMapWidth() == generator.getMapWidth() && saved.getMapHeight() == generator.getMapHeight()
+				&& saved.getSeed() == generator.getSeed() && saved.getNumSplitsAlpha() == generator.getNumSplitsAlpha()
+				&& saved.getNumSplitsBeta() == generator.getNumSplitsBeta() && saved.getNumSplitsGamma() == generator.getNumSplitsGamma()
+				&& saved.getNumSmooths() == generator.getNumSmooths();
+	}
+
+	private static WorldGenerator readHeader(ByteBuffer buffer, Path path) throws IOException {
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException(path + " is not a world file");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException(path + " is version " + buffer.getInt(4) + ", but only version " + VERSION + " can be read");
+		}
+		int width = buffer.getInt(8);
+		int length = buffer.getInt(12);
+		if (width <= 0 || length <= 0 || (long) width * length > Integer.MAX_VALUE) {
+			throw new IOException(path + " has a world of " + width + "x" + length + " tiles, which can't be made");
+		}
+		WorldGenerator generator = new WorldGenerator(width, length, buffer.getLong(16));
+		generator.setNumSplitsAlpha(buffer.getInt(24));
+		generator.setNumSplitsBeta(buffer.getInt(28));
+		generator.setNumSplitsGamma(buffer.getInt(32));
+		generator.setNumSmooths(buffer.getInt(36));
+		return generator;
+	}
+
+	private static void checkLength(long length, long expected, int id, Path path) throws IOException {
+		if (length != expected) {
+			throw new IOException("Column " + id + " of " + path + " has " + length + " bytes instead of " + expected);
+		}
+	}
+
+	/**
+	 * Rounds a position up to the next multiple of 8
+	 */
+	private static long align(long position) {
+		return (position + 7) & ~7L;
+	}
+
+}
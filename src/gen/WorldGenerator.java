@@ -1,8 +1,16 @@
 package gen;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
 import gameObject.TileMap;
 
-public abstract class WorldGenerator {
+/**
+ * This class generates a {@code TileMap} by running a pipeline of {@code GenerationStage}s on it, and measures each stage
+ */
+public class WorldGenerator {
 
 	private int mapWidth;
 	private int mapHeight;
@@ -10,13 +18,172 @@ public abstract class WorldGenerator {
 	private int numSplitsBeta;
 	private int numSplitsGamma;
 	private int numSmooths;
+	private long seed;
 	
-	public WorldGenerator() {
-		
+	private List<StageReport> reports; //the measurements from the last call to generate()
+	
+	public WorldGenerator(int mapWidth, int mapHeight, long seed) {
+		this.mapWidth = mapWidth;
+		this.mapHeight = mapHeight;
+		this.seed = seed;
+		numSplitsAlpha = 50;
+		numSplitsBeta = 10;
+		numSplitsGamma = 3;
+		numSmooths = 4;
+		reports = new ArrayList<>();
 	}
 	
+	/**
+	 * Returns the stages that {@code generate()} runs, in order
+	 * @return
+	 */
+	public List<GenerationStage> createStages() {
+		List<GenerationStage> stages = new ArrayList<>();
+		stages.add(new GenerationStage("splitTilesAlpha", (TileMap t) -> t.splitTiles(numSplitsAlpha)));
+		stages.add(new GenerationStage("splitTilesBeta", (TileMap t) -> t.splitTiles(numSplitsBeta)));
+		stages.add(new GenerationStage("splitTilesGamma", (TileMap t) -> t.splitTiles(numSplitsGamma)));
+		stages.add(new GenerationStage("smooth", (TileMap t) -> t.smooth(numSmooths)));
+		stages.add(new GenerationStage("calcTemp", TileMap::calcTemp));
+		stages.add(new GenerationStage("calcIsLand", TileMap::calcIsLand));
+		stages.add(new GenerationStage("calcPop", TileMap::calcPop));
+		stages.add(new GenerationStage("calcCiv", TileMap::calcCiv));
+		stages.add(new GenerationStage("calcSettlement", TileMap::calcSettlement));
+		return stages;
+	}
+	
+	/**
+	 * Creates a map and runs every stage on it, recording a {@code StageReport} for the map's creation and for each stage
+	 * @return the generated map
+	 */
 	public TileMap generate() {
-		return null;
+		reports = new ArrayList<>();
+		int numTiles = mapWidth * mapHeight;
+		
+		long allocated = getAllocatedBytes();
+		long start = System.nanoTime();
+		TileMap tileMap = GenerationStage.initialize(mapWidth, mapHeight, seed);
+		addReport(GenerationStage.INITIALIZE, start, allocated, numTiles);
+		
+		for (GenerationStage stage : createStages()) {
+			allocated = getAllocatedBytes();
+			start = System.nanoTime();
+			stage.run(tileMap);
+			addReport(stage.getName(), start, allocated, numTiles);
+		}
+		return tileMap;
+	}
+	
+	private void addReport(String name, long start, long allocated, int numTiles) {
+		reports.add(new StageReport(name, System.nanoTime() - start, difference(allocated, getAllocatedBytes()), numTiles));
+	}
+	
+	/**
+	 * Returns the total number of bytes allocated so far by every live thread, or -1 if the JVM can't measure it
+	 * 
+	 * Stages such as smoothing run on the fork-join pool, so the calling thread's allocations alone would miss most of their work
+	 * @return
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long total = 0;
+		for (long bytes : sunBean.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+			if (bytes > 0) {
+				total += bytes;
+			}
+		}
+		return total;
+	}
+	
+	private static long difference(long before, long after) {
+		if (before < 0 || after < 0) {
+			return -1;
+		}
+		return Math.max(0, after - before);
+	}
+	
+	/**
+	 * Returns the measurements from the last call to {@code generate()}
+	 * @return
+	 */
+	public List<StageReport> getReports() {
+		return reports;
+	}
+	
+	/**
+	 * Returns the total wall time of the last call to {@code generate()}
+	 * @return
+	 */
+	public long getTotalNanos() {
+		long total = 0;
+		for (StageReport report : reports) {
+			total += report.getNanos();
+		}
+		return total;
+	}
+	
+	/**
+	 * Prints the measurements from the last call to {@code generate()}
+	 */
+	public void printReports() {
+		for (StageReport report : reports) {
+			System.out.println(report);
+		}
+		System.out.println(String.format("%-16s %9.2f ms", "total", getTotalNanos() / 1e6));
+	}
+	
+	public int getMapWidth() {
+		return mapWidth;
+	}
+	
+	public int getMapHeight() {
+		return mapHeight;
+	}
+	
+	public int getNumSplitsAlpha() {
+		return numSplitsAlpha;
+	}
+	
+	public void setNumSplitsAlpha(int numSplitsAlpha) {
+		this.numSplitsAlpha = numSplitsAlpha;
+	}
+	
+	public int getNumSplitsBeta() {
+		return numSplitsBeta;
+	}
+	
+	public void setNumSplitsBeta(int numSplitsBeta) {
+		this.numSplitsBeta = numSplitsBeta;
+	}
+	
+	public int getNumSplitsGamma() {
+		return numSplitsGamma;
+	}
+	
+	public void setNumSplitsGamma(int numSplitsGamma) {
+		this.numSplitsGamma = numSplitsGamma;
+	}
+	
+	public int getNumSmooths() {
+		return numSmooths;
+	}
+	
+	public void setNumSmooths(int numSmooths) {
+		this.numSmooths = numSmooths;
+	}
+	
+	public long getSeed() {
+		return seed;
+	}
+	
+	public void setSeed(long seed) {
+		this.seed = seed;
 	}
 	
 }
@@ -47,7 +47,7 @@ public class Input implements KeyListener, MouseListener, MouseWheelListener {
 	
 	@Override
 	public void mousePressed(MouseEvent e) {
-		game.click(e.getX(), e.getY(), e.getButton() == e.BUTTON1);
+		game.click(e.getX(), e.getY(), e.getButton() == MouseEvent.BUTTON1);
 	}
 	
 	public int getX() {
@@ -59,11 +59,11 @@ public class Input implements KeyListener, MouseListener, MouseWheelListener {
 	}
 	
 	@Override
-	public void mouseWheelMoved(MouseWheelEvent e) {
+	public synchronized void mouseWheelMoved(MouseWheelEvent e) {
 		mouseScrollAmount += e.getPreciseWheelRotation();
 	}
 	
-	public float getMouseWheelRotation() {
+	public synchronized float getMouseWheelRotation() {
 		float output = mouseScrollAmount;
 		mouseScrollAmount = 0;
 		return output;
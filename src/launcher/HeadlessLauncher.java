@@ -0,0 +1,229 @@
+package launcher;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+import display.Camera;
+import display.Renderer;
+import engine.Game;
+import profiling.Profiler;
+
+/**
+ * This class contains a main method that renders the game into an offscreen image, without a window, and reports how fast it went
+ *
+ * The camera follows a path of waypoints, reaching each after the same number of frames, and every frame updates the game once, moves
+ * the camera to its point on the path and renders it once, as fast as possible. The camera is moved after the update, which would
+ * otherwise clamp its zoom and take its place as the one the frame is drawn from. The frames per second and the percentiles of each
+ * phase are printed at the end. Chosen frames can be saved as PNG files, and compared with earlier ones to check that rendering hasn't
+ * changed.
+ *
+ * The map is made as in the game (so {@code -Ditd.world}, {@code -Ditd.streamingSize} and {@code -Ditd.profile} work the same), except
+ * that the seed defaults to a fixed one, so runs can be compared. Streamed worlds load chunks in the background, so their frames aren't
+ * the same from run to run. Settings are read from system properties:
+ * <pre>
+ * itd.width        the width of the image in pixels (default 1280)
+ * itd.height       the height of the image in pixels (default 720)
+ * itd.frames       the number of frames measured along the path (default 600)
+ * itd.warmupFrames the number of frames drawn at the start of the path first, which aren't measured (default 100)
+ * itd.path         the waypoints, as "x,y,zoom;x,y,zoom;...", in world units with zooms from 1 to 100 (default a tour of the map at several zooms)
+ * itd.shots        the frames that are saved or compared, as "0,300,599" (default the first, middle and last)
+ * itd.screenshots  if set, the directory the frames in itd.shots are saved to, as frame-&lt;n&gt;.png
+ * itd.golden       if set, a directory of earlier frame-&lt;n&gt;.png files that the frames in itd.shots must match; the exit status is 1 if any don't
+ * </pre>
+ */
+public class HeadlessLauncher {
+
+	private static final long SEED = 1234567890L; //the seed when -Ditd.seed isn't set, the same as the benchmarks'
+	private static final float SQRT_3 = (float) Math.sqrt(3);
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		if (System.getProperty("itd.seed") == null) {
+			System.setProperty("itd.seed", Long.toString(SEED));
+		}
+		int width = Integer.getInteger("itd.width", 1280);
+		int height = Integer.getInteger("itd.height", 720);
+		int frames = Math.max(1, Integer.getInteger("itd.frames", 600));
+		int warmupFrames = Integer.getInteger("itd.warmupFrames", 100);
+		String screenshots = System.getProperty("itd.screenshots");
+		String golden = System.getProperty("itd.golden");
+		int[] shots = parseShots(System.getProperty("itd.shots"), frames);
+
+		Camera camera = new Camera();
+		Game game = new Game(camera, width, height);
+		game.getProfiler().writeCsvOnExit();
+		float[][] path = System.getProperty("itd.path") != null ? parsePath(System.getProperty("itd.path")) : createTour(game);
+		Renderer renderer = new Renderer(game);
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		for (int i = 0; i < warmupFrames; i++) {
+			game.update();
+			moveAlongPath(camera, path, 0f);
+			render(renderer, image);
+		}
+		Profiler profiler = game.getProfiler();
+		profiler.summarize(); //start the percentiles after the warmup
+
+		boolean matched = true;
+		long totalNanos = 0;
+		for (int i = 0; i < frames; i++) {
+			long start = System.nanoTime();
+			game.update();
+			long updated = System.nanoTime();
+			moveAlongPath(camera, path, frames == 1 ? 0f : (float) i / (frames - 1));
+			render(renderer, image);
+			long end = System.nanoTime();
+			totalNanos += end - start;
+			profiler.record(Profiler.UPDATE, updated - start);
+			profiler.recordFrame(end - updated);
+			if (contains(shots, i)) {
+				String name = "frame-" + i + ".png";
+				if (screenshots != null) {
+					File directory = new File(screenshots);
+					directory.mkdirs();
+					ImageIO.write(image, "png", new File(directory, name));
+				}
+				if (golden != null) {
+					matched &= compare(image, new File(golden, name));
+				}
+			}
+		}
+
+		profiler.summarize();
+		System.out.println(String.format(Locale.ROOT, "%d frames of %dx%d in %.2f s: %.1f frames/s", frames, width, height, totalNanos / 1e9,
+				frames * 1e9 / totalNanos));
+		for (int phase = 0; phase < Profiler.NUM_PHASES; phase++) {
+			System.out.println(String.format(Locale.ROOT, "%-10s p50 %8.3f ms   p99 %8.3f ms   max %8.3f ms", Profiler.getName(phase),
+					profiler.getP50(phase) / 1e6, profiler.getP99(phase) / 1e6, profiler.getMax(phase) / 1e6));
+		}
+		System.exit(matched ? 0 : 1);
+	}
+
+	/**
+	 * Renders the game as it is now into the image
+	 */
+	private static void render(Renderer renderer, BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		renderer.render(g, image.getWidth(), image.getHeight());
+		g.dispose();
+	}
+
+	/**
+	 * Moves the camera to a point along the path, going through each waypoint in the same time and zooming at an even rate
+	 * @param camera
+	 * @param path
+	 * @param t from 0 for the first waypoint to 1 for the last
+	 */
+	private static void moveAlongPath(Camera camera, float[][] path, float t) {
+		if (path.length == 1) {
+			camera.moveTo(path[0][0], path[0][1], path[0][2]);
+			return;
+		}
+		float position = t * (path.length - 1);
+		int segment = Math.min((int) position, path.length - 2);
+		float f = position - segment;
+		float[] from = path[segment];
+		float[] to = path[segment + 1];
+		float zoom = (float) (from[2] * Math.pow(to[2] / from[2], f));
+		camera.moveTo(from[0] + (to[0] - from[0]) * f, from[1] + (to[1] - from[1]) * f, zoom);
+	}
+
+	/**
+	 * Returns a path around the map: from the middle, zoomed in on two corners, then far enough out to see the whole map, and back
+	 */
+	private static float[][] createTour(Game game) {
+		int mapWidth = game.getChunkedWorld() != null ? game.getChunkedWorld().getWidth() : game.getTileMap().getWorld().getWidth();
+		int mapLength = game.getChunkedWorld() != null ? game.getChunkedWorld().getLength() : game.getTileMap().getWorld().getLength();
+		float worldWidth = 1.5f * mapWidth;
+		float worldHeight = SQRT_3 * mapLength;
+		return new float[][] {
+			{worldWidth / 2, worldHeight / 2, 20},
+			{worldWidth / 4, worldHeight / 4, 60},
+			{worldWidth * 3 / 4, worldHeight / 4, 10},
+			{worldWidth * 3 / 4, worldHeight * 3 / 4, 5},
+			{worldWidth / 2, worldHeight / 2, 2},
+			{worldWidth / 2, worldHeight / 2, 20},
+		};
+	}
+
+	/**
+	 * Reads waypoints written as "x,y,zoom;x,y,zoom;..."
+	 * @throws IllegalArgumentException if a waypoint isn't three numbers, or its zoom is outside of the camera's
+	 */
+	private static float[][] parsePath(String text) {
+		String[] points = text.split(";");
+		float[][] path = new float[points.length][];
+		for (int i = 0; i < points.length; i++) {
+			String[] values = points[i].split(",");
+			if (values.length != 3) {
+				throw new IllegalArgumentException("Waypoint " + (i + 1) + " of itd.path is not x,y,zoom: " + points[i]);
+			}
+			path[i] = new float[] {Float.parseFloat(values[0].trim()), Float.parseFloat(values[1].trim()), Float.parseFloat(values[2].trim())};
+			if (!Float.isFinite(path[i][0]) || !Float.isFinite(path[i][1])) {
+				throw new IllegalArgumentException("Waypoint " + (i + 1) + " of itd.path is not at a finite position: " + points[i]);
+			}
+			//also false for NaN
+			if (!(path[i][2] >= Camera.MIN_ZOOM && path[i][2] <= Camera.MAX_ZOOM)) {
+				throw new IllegalArgumentException("Waypoint " + (i + 1) + " of itd.path has a zoom of " + path[i][2] + ", outside of "
+						+ Camera.MIN_ZOOM + " to " + Camera.MAX_ZOOM);
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Reads frame numbers written as "0,300,599", or returns the first, middle and last frame if there are none
+	 */
+	private static int[] parseShots(String text, int frames) {
+		if (text == null) {
+			return new int[] {0, frames / 2, frames - 1};
+		}
+		String[] values = text.split(",");
+		int[] shots = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			shots[i] = Integer.parseInt(values[i].trim());
+		}
+		return shots;
+	}
+
+	private static boolean contains(int[] values, int value) {
+		for (int v : values) {
+			if (v == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compares a frame with a saved one and prints how many pixels differ
+	 * @return {@code true} if every pixel is the same
+	 */
+	private static boolean compare(BufferedImage image, File file) throws IOException {
+		if (!file.isFile()) {
+			System.out.println(file + ": missing");
+			return false;
+		}
+		BufferedImage expected = ImageIO.read(file);
+		if (expected.getWidth() != image.getWidth() || expected.getHeight() != image.getHeight()) {
+			System.out.println(file + ": is " + expected.getWidth() + "x" + expected.getHeight() + " instead of " + image.getWidth() + "x" + image.getHeight());
+			return false;
+		}
+		int[] actualPixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+		int[] expectedPixels = expected.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+		int differing = 0;
+		for (int i = 0; i < actualPixels.length; i++) {
+			if (actualPixels[i] != expectedPixels[i]) {
+				differing++;
+			}
+		}
+		System.out.println(file + ": " + (differing == 0 ? "matches" : differing + " pixels differ"));
+		return differing == 0;
+	}
+
+}
@@ -1,5 +1,9 @@
 package model;
 
+import java.util.SplittableRandom;
+
+import gen.SeedStreams;
+
 public class Person {
 
 	private String name;
@@ -10,16 +14,31 @@ public class Person {
 	private int guile;
 	private int scholarship;
 	
-	public Person(String name) {
+	/**
+	 * Creates a person whose skills only depend on the world's seed and the person's id
+	 * @param name
+	 * @param seed the world's seed
+	 * @param id
+	 */
+	public Person(String name, long seed, long id) {
+		this(name, SeedStreams.stream(seed, SeedStreams.STAGE_PEOPLE, id));
+	}
+	
+	/**
+	 * Creates a person whose skills are drawn from the given stream, so that people generated from a seed are reproducible
+	 * @param name
+	 * @param random
+	 */
+	public Person(String name, SplittableRandom random) {
 		this.name = name;
-		generateSkills();
+		generateSkills(random);
 	}
 	
-	private void generateSkills() {
-		talent = (int) (10 * (Math.random() + Math.random()));
-		charisma = (int) (10 * (Math.random() + Math.random()));
-		guile = (int) (10 * (Math.random() + Math.random()));
-		scholarship = (int) (10 * (Math.random() + Math.random()));
+	private void generateSkills(SplittableRandom random) {
+		talent = (int) (10 * (random.nextDouble() + random.nextDouble()));
+		charisma = (int) (10 * (random.nextDouble() + random.nextDouble()));
+		guile = (int) (10 * (random.nextDouble() + random.nextDouble()));
+		scholarship = (int) (10 * (random.nextDouble() + random.nextDouble()));
 	}
 	
 }
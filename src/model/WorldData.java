@@ -0,0 +1,357 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import gen.SeedStreams;
+
+/**
+ * This class contains the game model data of every tile in a map, stored as one primitive array per field
+ *
+ * Tiles are indexed by id, where a tile's id is {@code y * width + x}, so the passes over a field are plain linear loops
+ */
+public class WorldData {
+
+	public static final float SEA_LEVEL = 0.4f;
+	public static final float POP_COEFF = 1f / (1f - SEA_LEVEL);
+	public static final int ROWS_PER_CHUNK = 16; //the number of rows whose starting heights come from the same random stream
+
+	//the fields whose changes are counted, as bits that can be combined for getVersion()
+	public static final int HEIGHT = 1;
+	public static final int TEMP = 1 << 1;
+	public static final int IS_LAND = 1 << 2;
+	public static final int POP = 1 << 3;
+	public static final int CIV = 1 << 4;
+	public static final int SETTLEMENTS = 1 << 5;
+	private static final int NUM_FIELDS = 6;
+	private static final int BLACK = 0xff000000; //the packed RGB color of every tile until a map mode is shown
+
+	private int width;
+	private int length;
+	private long seed;
+
+	private float[] height;
+	private float[] temp;
+	private float[] tempVar; //back buffer for passes that must read the old heights while writing the new ones
+	private float[] pop;
+	private float[] civ;
+	private BitSet isLand;
+
+	private int[] color; //packed RGB color of each tile in the current map mode
+	private int[] colorSource; //the array given to setColors() last, which color is, or is a changed copy of
+	private boolean colorShared; //color is also held elsewhere, so it is copied before a tile of it is recolored
+	private Settlement[] settlements;
+
+	private int[] changes; //the number of times each field has changed
+	private BitSet dirty; //the tiles whose color has changed since the renderer last drew them
+
+	public WorldData(int width, int length, long seed) {
+		this.width = width;
+		this.length = length;
+		this.seed = seed;
+		int numTiles = width * length;
+
+		height = new float[numTiles];
+		temp = new float[numTiles];
+		tempVar = new float[numTiles];
+		pop = new float[numTiles];
+		civ = new float[numTiles];
+		isLand = new BitSet(numTiles);
+		color = new int[numTiles];
+		Arrays.fill(color, BLACK);
+		settlements = new Settlement[numTiles];
+		changes = new int[NUM_FIELDS];
+		dirty = new BitSet(numTiles);
+	}
+
+	/**
+	 * Records that the given fields have changed, so anything computed from them can tell it is out of date
+	 * @param fields a combination of {@code HEIGHT}, {@code TEMP}, {@code IS_LAND}, {@code POP}, {@code CIV} and {@code SETTLEMENTS}
+	 */
+	public void markChanged(int fields) {
+		for (int i = 0; i < NUM_FIELDS; i++) {
+			if ((fields & (1 << i)) != 0) {
+				changes[i]++;
+			}
+		}
+	}
+
+	/**
+	 * Returns a number that changes whenever any of the given fields changes
+	 * @param fields a combination of {@code HEIGHT}, {@code TEMP}, {@code IS_LAND}, {@code POP}, {@code CIV} and {@code SETTLEMENTS}
+	 * @return
+	 */
+	public int getVersion(int fields) {
+		int version = 0;
+		for (int i = 0; i < NUM_FIELDS; i++) {
+			if ((fields & (1 << i)) != 0) {
+				version += changes[i]; //the counts only go up, so their sum only stays the same if none of them changed
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * Sets every tile's height to a random number from the seed
+	 */
+	public void randomizeHeights() {
+		//each chunk of rows draws its starting heights from its own stream, so the chunks can be filled in any order
+		int numChunks = (length + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+		IntStream.range(0, numChunks).parallel().forEach((int chunk) -> {
+			SplittableRandom random = SeedStreams.stream(seed, SeedStreams.STAGE_HEIGHT, chunk);
+			int end = Math.min(length, (chunk + 1) * ROWS_PER_CHUNK) * width;
+			for (int i = chunk * ROWS_PER_CHUNK * width; i < end; i++) {
+				height[i] = (float) random.nextDouble();
+			}
+		});
+		markChanged(HEIGHT);
+	}
+
+	/**
+	 * Returns the id of the tile at the given hexagon coordinates
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public int index(int x, int y) {
+		return y * width + x;
+	}
+
+	public int getX(int id) {
+		return id % width;
+	}
+
+	public int getY(int id) {
+		return id / width;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getNumTiles() {
+		return height.length;
+	}
+
+	/**
+	 * Swaps the height and tempVar buffers, so that every tile's tempVar becomes its height
+	 * 
+	 * The old heights are left in tempVar, so every tile's tempVar should be written before this is called again
+	 */
+	public void swapTempVar() {
+		float[] swap = height;
+		height = tempVar;
+		tempVar = swap;
+		markChanged(HEIGHT);
+	}
+
+	public void calcTemp() {
+		for (int i = 0; i < height.length; i++) {
+			temp[i] = calcTileTemp(height[i], getY(i));
+		}
+		markChanged(TEMP);
+	}
+
+	public void calcIsLand() {
+		for (int i = 0; i < height.length; i++) {
+			isLand.set(i, calcTileIsLand(height[i]));
+		}
+		markChanged(IS_LAND);
+	}
+
+	public void calcPop() {
+		for (int i = 0; i < height.length; i++) {
+			pop[i] = calcTilePop(height[i]);
+		}
+		markChanged(POP);
+	}
+
+	/**
+	 * Returns the temperature of a tile from its height and row
+	 * @param height
+	 * @param y
+	 * @return
+	 */
+	public static float calcTileTemp(float height, int y) {
+		float latitude = y / 100f;
+		float x = 1f - (height * height * height) - (latitude * latitude);
+		if (x < 0f) {
+			return 0f;
+		}
+		else if (x > 1f) {
+			return 1f;
+		}
+		return x;
+	}
+
+	public static boolean calcTileIsLand(float height) {
+		return height > SEA_LEVEL;
+	}
+
+	public static float calcTilePop(float height) {
+		if (height < SEA_LEVEL) {
+			return 0f;
+		}
+		return (1f - height) * POP_COEFF;
+	}
+
+	public float getHeight(int id) {
+		return height[id];
+	}
+
+	public float getTemp(int id) {
+		return temp[id];
+	}
+
+	public float getTempVar(int id) {
+		return tempVar[id];
+	}
+
+	public void setTempVar(int id, float value) {
+		tempVar[id] = value;
+	}
+
+	public float getPop(int id) {
+		return pop[id];
+	}
+
+	public boolean getIsLand(int id) {
+		return isLand.get(id);
+	}
+
+	public float getCiv(int id) {
+		return civ[id];
+	}
+
+	public void setCiv(int id, float value) {
+		civ[id] = value;
+		markChanged(CIV);
+	}
+
+	public int getColor(int id) {
+		return color[id];
+	}
+
+	/**
+	 * Recolors a tile, first copying the colors if they are shared
+	 * @param id
+	 * @param rgb
+	 */
+	public void setColor(int id, int rgb) {
+		if (colorShared) {
+			color = color.clone();
+			colorShared = false;
+		}
+		color[id] = rgb;
+		dirty.set(id);
+	}
+
+	public Settlement getSettlement(int id) {
+		return settlements[id];
+	}
+
+	public void createSettlement(int id) {
+		settlements[id] = new Settlement();
+		markChanged(SETTLEMENTS);
+	}
+
+	/**
+	 * Returns the ids of the tiles that have a settlement, in order
+	 * @return
+	 */
+	public int[] getSettlementIds() {
+		int num = 0;
+		for (Settlement settlement : settlements) {
+			if (settlement != null) {
+				num++;
+			}
+		}
+		int[] ids = new int[num];
+		num = 0;
+		for (int i = 0; i < settlements.length; i++) {
+			if (settlements[i] != null) {
+				ids[num] = i;
+				num++;
+			}
+		}
+		return ids;
+	}
+
+	public float[] getHeights() {
+		return height;
+	}
+
+	public float[] getTempVars() {
+		return tempVar;
+	}
+
+	public float[] getTemps() {
+		return temp;
+	}
+
+	public float[] getPops() {
+		return pop;
+	}
+
+	public float[] getCivs() {
+		return civ;
+	}
+
+	public BitSet getIsLand() {
+		return isLand;
+	}
+
+	public int[] getColors() {
+		return color;
+	}
+
+	/**
+	 * Returns the ids of the tiles whose color has changed since they were last cleared from the set
+	 * 
+	 * Replacing every color with {@code setColors()} doesn't mark them, as every tile has to be drawn again anyway
+	 * @return
+	 */
+	public BitSet getDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Replaces the color of every tile, such as with the colors of another map mode
+	 * 
+	 * The array is shared rather than copied, so it is never changed: recoloring a tile afterwards changes a copy of it instead
+	 * @param color
+	 */
+	public void setColors(int[] color) {
+		this.color = color;
+		colorSource = color;
+		colorShared = true;
+	}
+	
+	/**
+	 * Returns the colors and marks them as shared, so the array is never changed after this: recoloring a tile changes a copy instead
+	 * @return
+	 */
+	public int[] shareColors() {
+		colorShared = true;
+		return color;
+	}
+	
+	/**
+	 * Returns the array last given to {@code setColors()}, which the current colors are, or were copied from
+	 * @return
+	 */
+	public int[] getColorSource() {
+		return colorSource;
+	}
+
+}
@@ -0,0 +1,29 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the Flight Recorder event of one run of a generation stage
+ */
+@Name("itd.GenerationStage")
+@Label("Generation Stage")
+@Category({"itd", "Generation"})
+@Description("A stage of world generation, such as smoothing or calculating temperature")
+public class GenerationStageEvent extends jdk.jfr.Event {
+
+	@Label("Stage")
+	public String stage;
+
+	@Label("Width")
+	public int width;
+
+	@Label("Length")
+	public int length;
+
+	@Label("Tiles")
+	public int tiles;
+
+}
@@ -0,0 +1,150 @@
+package profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts durations in buckets whose width grows with their value, so it covers nanoseconds to hours in a few hundred counters
+ *
+ * Each power of two is split into {@code SUB_BUCKETS} equal buckets, so a value is known to within an eighth of itself. Recording is one
+ * atomic increment and never locks or allocates, so any thread can record while another reads. The counts only grow; to look at a
+ * stretch of time, copy them at its start and end with {@code getCounts()} and take the difference.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; //buckets per power of two
+	public static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS; //enough for any positive long
+
+	private AtomicLongArray counts;
+	private AtomicLong count;
+	private AtomicLong max; //the largest value recorded
+	private AtomicLong recentMax; //the largest value recorded since getAndResetRecentMax() was last called
+
+	public Histogram() {
+		counts = new AtomicLongArray(NUM_BUCKETS);
+		count = new AtomicLong();
+		max = new AtomicLong();
+		recentMax = new AtomicLong();
+	}
+
+	/**
+	 * Counts a value
+	 * @param value a duration in nanoseconds; negative values are counted as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(getBucket(value));
+		count.incrementAndGet();
+		if (value > max.get()) {
+			max.accumulateAndGet(value, Math::max);
+		}
+		if (value > recentMax.get()) {
+			recentMax.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * Returns the bucket a value is counted in
+	 * @param value
+	 * @return
+	 */
+	public static int getBucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the smallest value counted in a bucket
+	 * @param bucket
+	 * @return
+	 */
+	public static long getLowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Returns the largest value counted in a bucket
+	 * @param bucket
+	 * @return
+	 */
+	public static long getUpperBound(int bucket) {
+		return bucket == NUM_BUCKETS - 1 ? Long.MAX_VALUE : getLowerBound(bucket + 1) - 1;
+	}
+
+	/**
+	 * Returns a copy of the count of each bucket
+	 * @param into the array to copy into, which is reused if it isn't {@code null}
+	 * @return
+	 */
+	public long[] getCounts(long[] into) {
+		if (into == null) {
+			into = new long[NUM_BUCKETS];
+		}
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			into[i] = counts.get(i);
+		}
+		return into;
+	}
+
+	/**
+	 * Returns the value that a fraction of the counted values are at or below, to within a bucket
+	 * @param counts the count of each bucket, such as from {@code getCounts()}
+	 * @param fraction from 0 to 1, for example 0.99 for the 99th percentile
+	 * @return the largest value of the bucket the value is in, or 0 if nothing was counted
+	 */
+	public static long getValueAt(long[] counts, double fraction) {
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * total)); //how many values are at or below the one we want
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return getUpperBound(i);
+			}
+		}
+		return getUpperBound(counts.length - 1);
+	}
+
+	/**
+	 * Returns the value that a fraction of all the counted values are at or below, to within a bucket
+	 * @param fraction from 0 to 1
+	 * @return
+	 */
+	public long getValueAt(double fraction) {
+		return Math.min(getValueAt(getCounts(null), fraction), max.get());
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the largest value recorded since this was last called, and starts looking for the next one
+	 * @return
+	 */
+	public long getAndResetRecentMax() {
+		return recentMax.getAndSet(0);
+	}
+
+}
@@ -0,0 +1,167 @@
+package profiling;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * This class keeps a {@code Histogram} of how long each phase of the frames and updates takes
+ *
+ * The render thread records the frame and its phases and the simulation thread records the update and the tick, each without locking.
+ * Once a second, {@code summarize()} finds the 50th and 99th percentile and the largest time of each phase over that second, for the
+ * statistics on screen. If {@code -Ditd.profile=<file>} is set, the histograms of the whole run are written to that file as CSV on exit.
+ */
+public class Profiler {
+
+	//the phases that are timed
+	public static final int FRAME = 0; //a whole frame
+	public static final int UPDATE = 1; //a whole update
+	public static final int TRANSFORM = 2; //moving the visible vertices to the screen
+	public static final int CULL = 3; //finding the visible tiles
+	public static final int FILL = 4; //filling the tiles
+	public static final int OVERLAY = 5; //drawing the settlements and the selection over the tiles
+	public static final int TICK = 6; //a game tick, part of an update
+	public static final int NUM_PHASES = 7;
+
+	private static final String[] NAMES = {"frame", "update", "transform", "cull", "fill", "overlay", "tick"};
+
+	public static final String CSV_PATH = System.getProperty("itd.profile"); //if set, the file the histograms are written to on exit
+
+	public static final int GRAPH_SIZE = 120; //how many of the latest frame times are kept for the graph
+
+	private Histogram[] histograms;
+
+	//the counts of each phase when summarize() was last called, and what it found since the time before
+	private long[][] lastCounts;
+	private long[] counts;
+	private long[] p50;
+	private long[] p99;
+	private long[] max;
+
+	//the latest frame times, oldest first from nextFrame, only used by the render thread
+	private long[] frameTimes;
+	private int nextFrame;
+
+	public Profiler() {
+		histograms = new Histogram[NUM_PHASES];
+		lastCounts = new long[NUM_PHASES][];
+		for (int i = 0; i < NUM_PHASES; i++) {
+			histograms[i] = new Histogram();
+			lastCounts[i] = new long[Histogram.NUM_BUCKETS];
+		}
+		counts = new long[Histogram.NUM_BUCKETS];
+		p50 = new long[NUM_PHASES];
+		p99 = new long[NUM_PHASES];
+		max = new long[NUM_PHASES];
+		frameTimes = new long[GRAPH_SIZE];
+		nextFrame = 0;
+	}
+
+	/**
+	 * Records how long a phase took
+	 * @param phase
+	 * @param nanos
+	 */
+	public void record(int phase, long nanos) {
+		histograms[phase].record(nanos);
+	}
+
+	/**
+	 * Records how long a whole frame took, and adds it to the graph; only called from the render thread
+	 * @param nanos
+	 */
+	public void recordFrame(long nanos) {
+		histograms[FRAME].record(nanos);
+		frameTimes[nextFrame] = nanos;
+		nextFrame = (nextFrame + 1) % GRAPH_SIZE;
+	}
+
+	/**
+	 * Finds the percentiles and largest time of each phase since this was last called
+	 *
+	 * Only one thread should call this, as it keeps the counts it last saw.
+	 */
+	public void summarize() {
+		for (int phase = 0; phase < NUM_PHASES; phase++) {
+			histograms[phase].getCounts(counts);
+			for (int i = 0; i < counts.length; i++) {
+				long count = counts[i];
+				counts[i] -= lastCounts[phase][i];
+				lastCounts[phase][i] = count;
+			}
+			max[phase] = histograms[phase].getAndResetRecentMax();
+			//a bucket's largest value can be more than anything in it
+			p50[phase] = Math.min(Histogram.getValueAt(counts, 0.5), max[phase]);
+			p99[phase] = Math.min(Histogram.getValueAt(counts, 0.99), max[phase]);
+		}
+	}
+
+	public long getP50(int phase) {
+		return p50[phase];
+	}
+
+	public long getP99(int phase) {
+		return p99[phase];
+	}
+
+	public long getMax(int phase) {
+		return max[phase];
+	}
+
+	/**
+	 * Returns one of the latest frame times
+	 * @param age 0 for the oldest kept, up to {@code GRAPH_SIZE - 1} for the newest
+	 * @return
+	 */
+	public long getFrameTime(int age) {
+		return frameTimes[(nextFrame + age) % GRAPH_SIZE];
+	}
+
+	public static String getName(int phase) {
+		return NAMES[phase];
+	}
+
+	public Histogram getHistogram(int phase) {
+		return histograms[phase];
+	}
+
+	/**
+	 * Writes every phase's histogram to a CSV file, with a row for each bucket that has anything in it
+	 *
+	 * The columns are the phase, the smallest and largest number of nanoseconds counted in the bucket, and its count.
+	 * @param path
+	 * @throws IOException
+	 */
+	public void writeCsv(String path) throws IOException {
+		try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+			out.println("phase,lower_ns,upper_ns,count");
+			long[] bucketCounts = new long[Histogram.NUM_BUCKETS];
+			for (int phase = 0; phase < NUM_PHASES; phase++) {
+				histograms[phase].getCounts(bucketCounts);
+				for (int i = 0; i < bucketCounts.length; i++) {
+					if (bucketCounts[i] != 0) {
+						out.println(NAMES[phase] + "," + Histogram.getLowerBound(i) + "," + Histogram.getUpperBound(i) + "," + bucketCounts[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the histograms to {@code CSV_PATH} when the program exits, if it is set
+	 */
+	public void writeCsvOnExit() {
+		if (CSV_PATH == null) {
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				writeCsv(CSV_PATH);
+			}
+			catch (IOException e) {
+				System.out.println("Could not write the profile to " + CSV_PATH + ": " + e.getMessage());
+			}
+		}, "profile"));
+	}
+
+}
@@ -0,0 +1,23 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the Flight Recorder event of coloring a map, or the loaded chunks of a streamed one, for a map mode
+ */
+@Name("itd.Recolor")
+@Label("Recolor")
+@Category({"itd", "Rendering"})
+@Description("Computing the color of every tile for a map mode")
+public class RecolorEvent extends jdk.jfr.Event {
+
+	@Label("Map Mode")
+	public int mapMode;
+
+	@Label("Tiles")
+	public long tiles;
+
+}
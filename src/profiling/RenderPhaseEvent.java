@@ -0,0 +1,64 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Flight Recorder event of one phase of a frame, named as in the {@code Profiler}
+ *
+ * It is made at the start of the phase with {@code start()} and committed at the end with {@code finish()}, which only fills in the fields
+ * if the event is being recorded.
+ */
+@Name("itd.RenderPhase")
+@Label("Render Phase")
+@Category({"itd", "Rendering"})
+@Description("A phase of drawing a frame: culling, transforming, filling or the overlay")
+@StackTrace(false) //several are made every frame, always from Renderer.render()
+public class RenderPhaseEvent extends jdk.jfr.Event {
+
+	@Label("Phase")
+	public String phase;
+
+	@Label("Tiles")
+	@Description("The tiles in the map")
+	public long tiles;
+
+	@Label("Visible Tiles")
+	public int visibleTiles;
+
+	@Label("Zoom")
+	@Description("The pixels per unit of the world")
+	public float zoom;
+
+	/**
+	 * Makes and begins an event
+	 * @return
+	 */
+	public static RenderPhaseEvent start() {
+		RenderPhaseEvent event = new RenderPhaseEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event, and records it if Flight Recorder is recording it
+	 * @param phase one of the {@code Profiler}'s phases
+	 * @param tiles
+	 * @param visibleTiles
+	 * @param zoom
+	 */
+	public void finish(int phase, long tiles, int visibleTiles, float zoom) {
+		end();
+		if (shouldCommit()) {
+			this.phase = Profiler.getName(phase);
+			this.tiles = tiles;
+			this.visibleTiles = visibleTiles;
+			this.zoom = zoom;
+			commit();
+		}
+	}
+
+}
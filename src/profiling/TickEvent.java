@@ -0,0 +1,18 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the Flight Recorder event of one game tick
+ */
+@Name("itd.Tick")
+@Label("Tick")
+@Category({"itd", "Simulation"})
+public class TickEvent extends jdk.jfr.Event {
+
+	@Label("Tiles")
+	public long tiles;
+
+}